@@ -12,9 +12,13 @@ package org.eclipse.sisu.equinox.launching.internal;
 
 import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashMap;
@@ -23,6 +27,8 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.LegacySupport;
 import org.codehaus.plexus.PlexusContainer;
 import org.codehaus.plexus.archiver.ArchiverException;
 import org.codehaus.plexus.archiver.UnArchiver;
@@ -41,9 +47,16 @@ import org.eclipse.tycho.ArtifactKey;
 import org.eclipse.tycho.core.TychoConstants;
 import org.eclipse.tycho.core.osgitools.BundleReader;
 import org.eclipse.tycho.core.osgitools.OsgiManifest;
+import org.eclipse.tycho.locking.facade.FileLockService;
+import org.eclipse.tycho.locking.facade.FileLocker;
 
 @Component(role = EquinoxInstallationFactory.class)
 public class DefaultEquinoxInstallationFactory implements EquinoxInstallationFactory {
+
+    static final String UNPACKED_BUNDLES_CACHE_PATH = ".cache/tycho/unpacked-bundles";
+
+    private static final String UNPACKED_MARKER = ".complete";
+
     @Requirement
     private PlexusContainer plexus;
 
@@ -53,6 +66,12 @@ public class DefaultEquinoxInstallationFactory implements EquinoxInstallationFac
     @Requirement
     private Logger log;
 
+    @Requirement
+    private LegacySupport buildContext;
+
+    @Requirement
+    private FileLockService fileLockService;
+
     public DefaultEquinoxInstallationFactory() {
         // for plexus
     }
@@ -81,12 +100,15 @@ public class DefaultEquinoxInstallationFactory implements EquinoxInstallationFac
             boolean directoryShape = bundlesToExplode.contains(key.getId()) || mf.isDirectoryShape();
 
             if (!file.isDirectory() && directoryShape) {
-                String filename = key.getId() + "_" + key.getVersion();
-                File unpacked = new File(location, "plugins/" + filename);
+                File unpacked = getCachedUnpackedBundle(key, file);
+                if (unpacked == null) {
+                    String filename = key.getId() + "_" + key.getVersion();
+                    unpacked = new File(location, "plugins/" + filename);
 
-                unpacked.mkdirs();
+                    unpacked.mkdirs();
 
-                unpack(file, unpacked);
+                    unpack(file, unpacked);
+                }
 
                 effective.put(key, unpacked);
             } else {
@@ -183,6 +205,77 @@ public class DefaultEquinoxInstallationFactory implements EquinoxInstallationFac
         return file.toURI().toURL().toExternalForm();
     }
 
+    /**
+     * Returns the unpacked copy of the given bundle jar from the cache in the local Maven
+     * repository, or <code>null</code> if the bundle shall not be cached. The cache is keyed by the
+     * checksum of the jar so that the unpacked bundles can be shared between all test runtimes of
+     * the current and subsequent builds. Only jars from the local repository are cached; jars built
+     * in the reactor change with every build.
+     */
+    private File getCachedUnpackedBundle(ArtifactKey key, File bundleJar) {
+        MavenSession session = buildContext == null ? null : buildContext.getSession();
+        if (session == null) {
+            return null;
+        }
+        File localRepository = new File(session.getLocalRepository().getBasedir());
+        try {
+            if (!bundleJar.getCanonicalPath().startsWith(localRepository.getCanonicalPath() + File.separator)) {
+                return null;
+            }
+
+            File cacheEntry = new File(localRepository, UNPACKED_BUNDLES_CACHE_PATH + "/" + sha1(bundleJar));
+            File unpacked = new File(cacheEntry, key.getId() + "_" + key.getVersion());
+            File completeMarker = new File(cacheEntry, UNPACKED_MARKER);
+            if (completeMarker.isFile()) {
+                return unpacked;
+            }
+
+            // create the directory first so that all processes use the same lock file
+            cacheEntry.mkdirs();
+            FileLocker locker = fileLockService.getFileLocker(cacheEntry);
+            locker.lock(5 * 60 * 1000L);
+            try {
+                if (!completeMarker.isFile()) {
+                    // remove leftovers of an interrupted extraction
+                    FileUtils.deleteDirectory(unpacked);
+                    unpacked.mkdirs();
+                    unpack(bundleJar, unpacked);
+                    completeMarker.createNewFile();
+                }
+            } finally {
+                locker.release();
+            }
+            return unpacked;
+        } catch (IOException e) {
+            log.warn("Could not use cache of unpacked bundles for " + bundleJar + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static String sha1(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } finally {
+            in.close();
+        }
+        StringBuilder result = new StringBuilder();
+        for (byte b : digest.digest()) {
+            result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return result.toString();
+    }
+
     protected void unpack(File source, File destination) {
         UnArchiver unzip;
         try {
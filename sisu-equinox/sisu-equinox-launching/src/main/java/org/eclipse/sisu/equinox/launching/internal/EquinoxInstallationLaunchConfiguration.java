@@ -24,11 +24,18 @@ import org.eclipse.tycho.launching.LaunchConfiguration;
 public class EquinoxInstallationLaunchConfiguration implements LaunchConfiguration {
 
     private final File equinoxDirectory;
+    private final String[] vmArguments;
     private final String[] programArguments;
     private final File launcherJar;
 
     public EquinoxInstallationLaunchConfiguration(File equinoxDirectory, List<String> programArguments) {
+        this(equinoxDirectory, Collections.<String> emptyList(), programArguments);
+    }
+
+    public EquinoxInstallationLaunchConfiguration(File equinoxDirectory, List<String> vmArguments,
+            List<String> programArguments) {
         this.equinoxDirectory = equinoxDirectory;
+        this.vmArguments = vmArguments.toArray(new String[0]);
         this.programArguments = programArguments.toArray(new String[0]);
         this.launcherJar = findLauncherJar(equinoxDirectory);
     }
@@ -72,7 +79,7 @@ public class EquinoxInstallationLaunchConfiguration implements LaunchConfigurati
 
     @Override
     public String[] getVMArguments() {
-        return new String[0];
+        return vmArguments;
     }
 
     @Override
@@ -0,0 +1,428 @@
+/*******************************************************************************
+ * Copyright (c) 2015 SAP SE and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    SAP SE - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.tycho.zipcomparator.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.objectweb.asm.Attribute;
+import org.objectweb.asm.TypePath;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.AnnotationNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.IincInsnNode;
+import org.objectweb.asm.tree.InnerClassNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.IntInsnNode;
+import org.objectweb.asm.tree.InvokeDynamicInsnNode;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.LocalVariableAnnotationNode;
+import org.objectweb.asm.tree.LookupSwitchInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.MultiANewArrayInsnNode;
+import org.objectweb.asm.tree.ParameterNode;
+import org.objectweb.asm.tree.TableSwitchInsnNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+import org.objectweb.asm.tree.TypeAnnotationNode;
+import org.objectweb.asm.tree.TypeInsnNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+/**
+ * Compares the structure of two {@link ClassNode}s, i.e. the class header, the members, the
+ * annotations, and the bytecode instructions. Labels are compared by their position in the
+ * instruction list. Debug information and stack map frames are expected to be skipped when reading
+ * the classes, and are therefore not compared.
+ */
+final class ClassNodeComparator {
+
+    private ClassNodeComparator() {
+    }
+
+    public static boolean isEqual(ClassNode baseline, ClassNode reactor) {
+        return baseline.version == reactor.version //
+                && baseline.access == reactor.access //
+                && eq(baseline.name, reactor.name) //
+                && eq(baseline.signature, reactor.signature) //
+                && eq(baseline.superName, reactor.superName) //
+                && eq(baseline.interfaces, reactor.interfaces) //
+                && eq(baseline.outerClass, reactor.outerClass) //
+                && eq(baseline.outerMethod, reactor.outerMethod) //
+                && eq(baseline.outerMethodDesc, reactor.outerMethodDesc) //
+                && annotationsEqual(baseline.visibleAnnotations, reactor.visibleAnnotations)
+                && annotationsEqual(baseline.invisibleAnnotations, reactor.invisibleAnnotations)
+                && typeAnnotationsEqual(baseline.visibleTypeAnnotations, reactor.visibleTypeAnnotations)
+                && typeAnnotationsEqual(baseline.invisibleTypeAnnotations, reactor.invisibleTypeAnnotations)
+                && attributesEqual(baseline.attrs, reactor.attrs)
+                && innerClassesEqual(baseline.innerClasses, reactor.innerClasses)
+                && fieldsEqual(baseline.fields, reactor.fields) //
+                && methodsEqual(baseline.methods, reactor.methods);
+    }
+
+    private static boolean innerClassesEqual(List<InnerClassNode> baseline, List<InnerClassNode> reactor) {
+        baseline = nonNull(baseline);
+        reactor = nonNull(reactor);
+        if (baseline.size() != reactor.size()) {
+            return false;
+        }
+        for (int i = 0; i < baseline.size(); i++) {
+            InnerClassNode node1 = baseline.get(i);
+            InnerClassNode node2 = reactor.get(i);
+            if (!(eq(node1.name, node2.name) && eq(node1.outerName, node2.outerName)
+                    && eq(node1.innerName, node2.innerName) && node1.access == node2.access)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean fieldsEqual(List<FieldNode> baseline, List<FieldNode> reactor) {
+        baseline = nonNull(baseline);
+        reactor = nonNull(reactor);
+        if (baseline.size() != reactor.size()) {
+            return false;
+        }
+        for (int i = 0; i < baseline.size(); i++) {
+            FieldNode field1 = baseline.get(i);
+            FieldNode field2 = reactor.get(i);
+            if (!(field1.access == field2.access && eq(field1.name, field2.name) && eq(field1.desc, field2.desc)
+                    && eq(field1.signature, field2.signature) && eq(field1.value, field2.value)
+                    && annotationsEqual(field1.visibleAnnotations, field2.visibleAnnotations)
+                    && annotationsEqual(field1.invisibleAnnotations, field2.invisibleAnnotations)
+                    && typeAnnotationsEqual(field1.visibleTypeAnnotations, field2.visibleTypeAnnotations)
+                    && typeAnnotationsEqual(field1.invisibleTypeAnnotations, field2.invisibleTypeAnnotations)
+                    && attributesEqual(field1.attrs, field2.attrs))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean methodsEqual(List<MethodNode> baseline, List<MethodNode> reactor) {
+        baseline = nonNull(baseline);
+        reactor = nonNull(reactor);
+        if (baseline.size() != reactor.size()) {
+            return false;
+        }
+        for (int i = 0; i < baseline.size(); i++) {
+            if (!methodEqual(baseline.get(i), reactor.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean methodEqual(MethodNode method1, MethodNode method2) {
+        return method1.access == method2.access
+                && eq(method1.name, method2.name)
+                && eq(method1.desc, method2.desc)
+                && eq(method1.signature, method2.signature)
+                && eq(method1.exceptions, method2.exceptions)
+                && parametersEqual(method1.parameters, method2.parameters)
+                && annotationsEqual(method1.visibleAnnotations, method2.visibleAnnotations)
+                && annotationsEqual(method1.invisibleAnnotations, method2.invisibleAnnotations)
+                && typeAnnotationsEqual(method1.visibleTypeAnnotations, method2.visibleTypeAnnotations)
+                && typeAnnotationsEqual(method1.invisibleTypeAnnotations, method2.invisibleTypeAnnotations)
+                && annotationValueEqual(method1.annotationDefault, method2.annotationDefault)
+                && parameterAnnotationsEqual(method1.visibleParameterAnnotations, method2.visibleParameterAnnotations)
+                && parameterAnnotationsEqual(method1.invisibleParameterAnnotations,
+                        method2.invisibleParameterAnnotations)
+                && attributesEqual(method1.attrs, method2.attrs)
+                && method1.maxStack == method2.maxStack
+                && method1.maxLocals == method2.maxLocals
+                && instructionsEqual(method1.instructions, method2.instructions)
+                && tryCatchBlocksEqual(method1, method2)
+                && localVariableAnnotationsEqual(method1, method1.visibleLocalVariableAnnotations, method2,
+                        method2.visibleLocalVariableAnnotations)
+                && localVariableAnnotationsEqual(method1, method1.invisibleLocalVariableAnnotations, method2,
+                        method2.invisibleLocalVariableAnnotations);
+    }
+
+    private static boolean parametersEqual(List<ParameterNode> baseline, List<ParameterNode> reactor) {
+        baseline = nonNull(baseline);
+        reactor = nonNull(reactor);
+        if (baseline.size() != reactor.size()) {
+            return false;
+        }
+        for (int i = 0; i < baseline.size(); i++) {
+            ParameterNode parameter1 = baseline.get(i);
+            ParameterNode parameter2 = reactor.get(i);
+            if (!(eq(parameter1.name, parameter2.name) && parameter1.access == parameter2.access)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean tryCatchBlocksEqual(MethodNode method1, MethodNode method2) {
+        List<TryCatchBlockNode> baseline = nonNull(method1.tryCatchBlocks);
+        List<TryCatchBlockNode> reactor = nonNull(method2.tryCatchBlocks);
+        if (baseline.size() != reactor.size()) {
+            return false;
+        }
+        for (int i = 0; i < baseline.size(); i++) {
+            TryCatchBlockNode block1 = baseline.get(i);
+            TryCatchBlockNode block2 = reactor.get(i);
+            if (!(labelsEqual(method1.instructions, block1.start, method2.instructions, block2.start)
+                    && labelsEqual(method1.instructions, block1.end, method2.instructions, block2.end)
+                    && labelsEqual(method1.instructions, block1.handler, method2.instructions, block2.handler)
+                    && eq(block1.type, block2.type)
+                    && typeAnnotationsEqual(block1.visibleTypeAnnotations, block2.visibleTypeAnnotations)
+                    && typeAnnotationsEqual(block1.invisibleTypeAnnotations, block2.invisibleTypeAnnotations))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean localVariableAnnotationsEqual(MethodNode method1,
+            List<LocalVariableAnnotationNode> baseline, MethodNode method2, List<LocalVariableAnnotationNode> reactor) {
+        baseline = nonNull(baseline);
+        reactor = nonNull(reactor);
+        if (baseline.size() != reactor.size()) {
+            return false;
+        }
+        for (int i = 0; i < baseline.size(); i++) {
+            LocalVariableAnnotationNode annotation1 = baseline.get(i);
+            LocalVariableAnnotationNode annotation2 = reactor.get(i);
+            if (!(typeAnnotationEqual(annotation1, annotation2)
+                    && eq(annotation1.index, annotation2.index)
+                    && labelListsEqual(method1.instructions, annotation1.start, method2.instructions, annotation2.start)
+                    && labelListsEqual(method1.instructions, annotation1.end, method2.instructions, annotation2.end))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean instructionsEqual(InsnList baseline, InsnList reactor) {
+        if (baseline.size() != reactor.size()) {
+            return false;
+        }
+        AbstractInsnNode insn1 = baseline.getFirst();
+        AbstractInsnNode insn2 = reactor.getFirst();
+        while (insn1 != null) {
+            if (!instructionEqual(baseline, insn1, reactor, insn2)) {
+                return false;
+            }
+            insn1 = insn1.getNext();
+            insn2 = insn2.getNext();
+        }
+        return true;
+    }
+
+    private static boolean instructionEqual(InsnList list1, AbstractInsnNode insn1, InsnList list2,
+            AbstractInsnNode insn2) {
+        if (insn1.getType() != insn2.getType() || insn1.getOpcode() != insn2.getOpcode()) {
+            return false;
+        }
+        if (!(typeAnnotationsEqual(insn1.visibleTypeAnnotations, insn2.visibleTypeAnnotations)
+                && typeAnnotationsEqual(insn1.invisibleTypeAnnotations, insn2.invisibleTypeAnnotations))) {
+            return false;
+        }
+
+        switch (insn1.getType()) {
+        case AbstractInsnNode.INT_INSN:
+            return ((IntInsnNode) insn1).operand == ((IntInsnNode) insn2).operand;
+
+        case AbstractInsnNode.VAR_INSN:
+            return ((VarInsnNode) insn1).var == ((VarInsnNode) insn2).var;
+
+        case AbstractInsnNode.TYPE_INSN:
+            return eq(((TypeInsnNode) insn1).desc, ((TypeInsnNode) insn2).desc);
+
+        case AbstractInsnNode.FIELD_INSN: {
+            FieldInsnNode field1 = (FieldInsnNode) insn1;
+            FieldInsnNode field2 = (FieldInsnNode) insn2;
+            return eq(field1.owner, field2.owner) && eq(field1.name, field2.name) && eq(field1.desc, field2.desc);
+        }
+        case AbstractInsnNode.METHOD_INSN: {
+            MethodInsnNode method1 = (MethodInsnNode) insn1;
+            MethodInsnNode method2 = (MethodInsnNode) insn2;
+            return eq(method1.owner, method2.owner) && eq(method1.name, method2.name)
+                    && eq(method1.desc, method2.desc) && method1.itf == method2.itf;
+        }
+        case AbstractInsnNode.INVOKE_DYNAMIC_INSN: {
+            InvokeDynamicInsnNode indy1 = (InvokeDynamicInsnNode) insn1;
+            InvokeDynamicInsnNode indy2 = (InvokeDynamicInsnNode) insn2;
+            return eq(indy1.name, indy2.name) && eq(indy1.desc, indy2.desc) && eq(indy1.bsm, indy2.bsm)
+                    && Arrays.equals(indy1.bsmArgs, indy2.bsmArgs);
+        }
+        case AbstractInsnNode.JUMP_INSN:
+            return labelsEqual(list1, ((JumpInsnNode) insn1).label, list2, ((JumpInsnNode) insn2).label);
+
+        case AbstractInsnNode.LDC_INSN:
+            return eq(((LdcInsnNode) insn1).cst, ((LdcInsnNode) insn2).cst);
+
+        case AbstractInsnNode.IINC_INSN: {
+            IincInsnNode iinc1 = (IincInsnNode) insn1;
+            IincInsnNode iinc2 = (IincInsnNode) insn2;
+            return iinc1.var == iinc2.var && iinc1.incr == iinc2.incr;
+        }
+        case AbstractInsnNode.TABLESWITCH_INSN: {
+            TableSwitchInsnNode switch1 = (TableSwitchInsnNode) insn1;
+            TableSwitchInsnNode switch2 = (TableSwitchInsnNode) insn2;
+            return switch1.min == switch2.min && switch1.max == switch2.max
+                    && labelsEqual(list1, switch1.dflt, list2, switch2.dflt)
+                    && labelListsEqual(list1, switch1.labels, list2, switch2.labels);
+        }
+        case AbstractInsnNode.LOOKUPSWITCH_INSN: {
+            LookupSwitchInsnNode switch1 = (LookupSwitchInsnNode) insn1;
+            LookupSwitchInsnNode switch2 = (LookupSwitchInsnNode) insn2;
+            return eq(switch1.keys, switch2.keys) && labelsEqual(list1, switch1.dflt, list2, switch2.dflt)
+                    && labelListsEqual(list1, switch1.labels, list2, switch2.labels);
+        }
+        case AbstractInsnNode.MULTIANEWARRAY_INSN: {
+            MultiANewArrayInsnNode array1 = (MultiANewArrayInsnNode) insn1;
+            MultiANewArrayInsnNode array2 = (MultiANewArrayInsnNode) insn2;
+            return eq(array1.desc, array2.desc) && array1.dims == array2.dims;
+        }
+        default:
+            // INSN and LABEL have no operands; FRAME and LINE are not read
+            return true;
+        }
+    }
+
+    private static boolean labelsEqual(InsnList list1, LabelNode label1, InsnList list2, LabelNode label2) {
+        if (label1 == null || label2 == null) {
+            return label1 == label2;
+        }
+        return list1.indexOf(label1) == list2.indexOf(label2);
+    }
+
+    private static boolean labelListsEqual(InsnList list1, List<LabelNode> labels1, InsnList list2,
+            List<LabelNode> labels2) {
+        labels1 = nonNull(labels1);
+        labels2 = nonNull(labels2);
+        if (labels1.size() != labels2.size()) {
+            return false;
+        }
+        for (int i = 0; i < labels1.size(); i++) {
+            if (!labelsEqual(list1, labels1.get(i), list2, labels2.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean annotationsEqual(List<AnnotationNode> baseline, List<AnnotationNode> reactor) {
+        baseline = nonNull(baseline);
+        reactor = nonNull(reactor);
+        if (baseline.size() != reactor.size()) {
+            return false;
+        }
+        for (int i = 0; i < baseline.size(); i++) {
+            if (!annotationEqual(baseline.get(i), reactor.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean parameterAnnotationsEqual(List<AnnotationNode>[] baseline, List<AnnotationNode>[] reactor) {
+        int length1 = baseline == null ? 0 : baseline.length;
+        int length2 = reactor == null ? 0 : reactor.length;
+        for (int i = 0; i < Math.max(length1, length2); i++) {
+            List<AnnotationNode> annotations1 = i < length1 ? baseline[i] : null;
+            List<AnnotationNode> annotations2 = i < length2 ? reactor[i] : null;
+            if (!annotationsEqual(annotations1, annotations2)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean typeAnnotationsEqual(List<? extends TypeAnnotationNode> baseline,
+            List<? extends TypeAnnotationNode> reactor) {
+        baseline = nonNull(baseline);
+        reactor = nonNull(reactor);
+        if (baseline.size() != reactor.size()) {
+            return false;
+        }
+        for (int i = 0; i < baseline.size(); i++) {
+            if (!typeAnnotationEqual(baseline.get(i), reactor.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean typeAnnotationEqual(TypeAnnotationNode annotation1, TypeAnnotationNode annotation2) {
+        return annotation1.typeRef == annotation2.typeRef
+                && typePathsEqual(annotation1.typePath, annotation2.typePath)
+                && annotationEqual(annotation1, annotation2);
+    }
+
+    private static boolean typePathsEqual(TypePath path1, TypePath path2) {
+        if (path1 == null || path2 == null) {
+            return path1 == path2;
+        }
+        // TypePath doesn't implement equals
+        return path1.toString().equals(path2.toString());
+    }
+
+    private static boolean annotationEqual(AnnotationNode annotation1, AnnotationNode annotation2) {
+        return eq(annotation1.desc, annotation2.desc) && annotationValueEqual(annotation1.values, annotation2.values);
+    }
+
+    /**
+     * Compares annotation values, which may be primitive wrappers, strings, types, enum values (as
+     * String arrays), primitive arrays, nested {@link AnnotationNode}s, or lists of these.
+     */
+    private static boolean annotationValueEqual(Object value1, Object value2) {
+        if (value1 instanceof AnnotationNode && value2 instanceof AnnotationNode) {
+            return annotationEqual((AnnotationNode) value1, (AnnotationNode) value2);
+        } else if (value1 instanceof List && value2 instanceof List) {
+            List<?> list1 = (List<?>) value1;
+            List<?> list2 = (List<?>) value2;
+            if (list1.size() != list2.size()) {
+                return false;
+            }
+            for (int i = 0; i < list1.size(); i++) {
+                if (!annotationValueEqual(list1.get(i), list2.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        // ASM doesn't wrap arrays of primitive values (e.g. int[]) in lists
+        return Objects.deepEquals(value1, value2);
+    }
+
+    private static boolean attributesEqual(List<Attribute> baseline, List<Attribute> reactor) {
+        baseline = nonNull(baseline);
+        reactor = nonNull(reactor);
+        if (baseline.size() != reactor.size()) {
+            return false;
+        }
+        for (int i = 0; i < baseline.size(); i++) {
+            // the content of non-standard attributes is not accessible
+            if (!eq(baseline.get(i).type, reactor.get(i).type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <T> List<T> nonNull(List<T> list) {
+        return list != null ? list : Collections.<T> emptyList();
+    }
+
+    private static boolean eq(Object o1, Object o2) {
+        return o1 != null ? o1.equals(o2) : o2 == null;
+    }
+}
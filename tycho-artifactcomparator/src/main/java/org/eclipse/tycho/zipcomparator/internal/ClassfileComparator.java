@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012 Sonatype Inc. and others.
+ * Copyright (c) 2012, 2015 Sonatype Inc. and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -43,23 +43,24 @@ public class ClassfileComparator implements ContentsComparator {
         byte[] baselineBytes = IOUtil.toByteArray(baseline);
         byte[] reactorBytes = IOUtil.toByteArray(reactor);
 
-        String baselineDisassemble = null;
-        String reactorDisassemble = null;
-
-        boolean equal;
+        ClassNode baselineClass;
+        ClassNode reactorClass;
         try {
-            baselineDisassemble = disassemble(baselineBytes);
-            reactorDisassemble = disassemble(reactorBytes);
-            equal = baselineDisassemble.equals(reactorDisassemble);
+            baselineClass = readClass(baselineBytes);
+            reactorClass = readClass(reactorBytes);
         } catch (IllegalArgumentException e) {
-            // asm could not disassemble one of the classes, fallback to byte-to-byte comparison
-            equal = Arrays.equals(baselineBytes, reactorBytes);
+            // asm could not read one of the classes, fallback to byte-to-byte comparison
+            return !Arrays.equals(baselineBytes, reactorBytes) ? new SimpleArtifactDelta("different") : null;
         }
 
-        return !equal ? new SimpleArtifactDelta("different", baselineDisassemble, reactorDisassemble) : null;
+        if (ClassNodeComparator.isEqual(baselineClass, reactorClass)) {
+            return null;
+        }
+        // only render human-readable bytecode for the details of actual differences
+        return new SimpleArtifactDelta("different", disassemble(baselineClass), disassemble(reactorClass));
     }
 
-    private String disassemble(byte[] bytes) {
+    private ClassNode readClass(byte[] bytes) {
         ClassReader reader = new ClassReader(bytes);
         ClassNode clazz = new ClassNode();
         reader.accept(clazz, Opcodes.ASM5 | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
@@ -75,9 +76,10 @@ public class ClassfileComparator implements ContentsComparator {
             });
             clazz.innerClasses = sorted;
         }
+        return clazz;
+    }
 
-        // rendering human-readable bytecode is an eyecandy, we can compare ClassNodes directly
-
+    private String disassemble(ClassNode clazz) {
         StringWriter buffer = new StringWriter();
         PrintWriter writer = new PrintWriter(buffer);
         clazz.accept(new TraceClassVisitor(writer));
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012 Sonatype Inc. and others.
+ * Copyright (c) 2012, 2015 Sonatype Inc. and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,10 +18,21 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -48,6 +59,38 @@ public class ZipComparatorImpl implements ArtifactComparator {
         IGNORED_PATTERNS = Collections.unmodifiableList(ignoredPatterns);
     }
 
+    private static final ThreadLocal<Boolean> IS_COMPARATOR_THREAD = new ThreadLocal<>();
+
+    /**
+     * Threads shared by all comparisons. Nested zips are compared in the thread of the outer
+     * comparison, so that the number of threads stays bounded and the threads never wait for each
+     * other.
+     */
+    private static final ExecutorService COMPARATOR_THREADS = newComparatorThreads();
+
+    private static ExecutorService newComparatorThreads() {
+        final AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        IS_COMPARATOR_THREAD.set(Boolean.TRUE);
+                        runnable.run();
+                    }
+                }, "ZipComparator-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        int threads = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     @Requirement
     private Logger log;
 
@@ -69,33 +112,33 @@ public class ZipComparatorImpl implements ArtifactComparator {
                 names.addAll(entries.keySet());
                 names.addAll(entries2.keySet());
 
+                // entries which may differ -> need to be compared by content; null for missing entries
+                Map<String, ArtifactDelta> candidates = new LinkedHashMap<>();
                 for (String name : names) {
                     ZipEntry entry = entries.get(name);
                     if (entry == null) {
-                        result.put(name, new SimpleArtifactDelta("not present in baseline"));
+                        candidates.put(name, new SimpleArtifactDelta("not present in baseline"));
                         continue;
                     }
                     ZipEntry entry2 = entries2.get(name);
                     if (entry2 == null) {
-                        result.put(name, new SimpleArtifactDelta("present in baseline only"));
+                        candidates.put(name, new SimpleArtifactDelta("present in baseline only"));
                         continue;
                     }
+                    if (!isSameContent(entry, entry2)) {
+                        candidates.put(name, null);
+                    }
+                }
 
-                    InputStream is = jar.getInputStream(entry);
-                    try {
-                        InputStream is2 = jar2.getInputStream(entry2);
-                        try {
-                            ContentsComparator comparator = comparators.get(getContentType(name));
-                            ArtifactDelta differences = comparator.getDelta(is, is2);
-                            if (differences != null) {
-                                result.put(name, differences);
-                                continue;
-                            }
-                        } finally {
-                            IOUtil.close(is2);
-                        }
-                    } finally {
-                        IOUtil.close(is);
+                Map<String, Future<ArtifactDelta>> deltas = getContentDeltas(jar, jar2, candidates);
+                for (Map.Entry<String, ArtifactDelta> candidate : candidates.entrySet()) {
+                    String name = candidate.getKey();
+                    ArtifactDelta differences = candidate.getValue();
+                    if (differences == null) {
+                        differences = getResult(deltas.get(name));
+                    }
+                    if (differences != null) {
+                        result.put(name, differences);
                     }
                 }
             } finally {
@@ -115,6 +158,103 @@ public class ZipComparatorImpl implements ArtifactComparator {
         return !result.isEmpty() ? new CompoundArtifactDelta("different", result) : null;
     }
 
+    /**
+     * Returns <code>true</code> if the CRC and size recorded in the central directories of the
+     * zips show that the entries are byte-identical.
+     */
+    private static boolean isSameContent(ZipEntry entry, ZipEntry entry2) {
+        return entry.getCrc() != -1 && entry.getSize() != -1 && entry.getCrc() == entry2.getCrc()
+                && entry.getSize() == entry2.getSize();
+    }
+
+    /**
+     * Compares the content of the entries present in both zips, in parallel if there are several
+     * and if not called for a nested zip.
+     */
+    private Map<String, Future<ArtifactDelta>> getContentDeltas(final ZipFile jar, final ZipFile jar2,
+            Map<String, ArtifactDelta> candidates) {
+        Map<String, Future<ArtifactDelta>> result = new LinkedHashMap<>();
+        List<String> names = new ArrayList<>();
+        for (Map.Entry<String, ArtifactDelta> candidate : candidates.entrySet()) {
+            if (candidate.getValue() == null) {
+                names.add(candidate.getKey());
+            }
+        }
+        if (names.isEmpty()) {
+            return result;
+        }
+
+        if (names.size() == 1 || IS_COMPARATOR_THREAD.get() != null) {
+            for (String name : names) {
+                FutureTask<ArtifactDelta> task = new FutureTask<>(newCompareTask(jar, jar2, name));
+                task.run();
+                result.put(name, task);
+            }
+            return result;
+        }
+
+        for (String name : names) {
+            result.put(name, COMPARATOR_THREADS.submit(newCompareTask(jar, jar2, name)));
+        }
+        try {
+            // wait for all tasks before the zip files are closed
+            for (Future<ArtifactDelta> delta : result.values()) {
+                try {
+                    delta.get();
+                } catch (ExecutionException e) {
+                    // reported by getResult
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+        } finally {
+            for (Future<ArtifactDelta> delta : result.values()) {
+                delta.cancel(true);
+            }
+        }
+        return result;
+    }
+
+    private Callable<ArtifactDelta> newCompareTask(final ZipFile jar, final ZipFile jar2, final String name) {
+        return new Callable<ArtifactDelta>() {
+            @Override
+            public ArtifactDelta call() throws IOException {
+                InputStream is = jar.getInputStream(jar.getEntry(name));
+                try {
+                    InputStream is2 = jar2.getInputStream(jar2.getEntry(name));
+                    try {
+                        ContentsComparator comparator = comparators.get(getContentType(name));
+                        return comparator.getDelta(is, is2);
+                    } finally {
+                        IOUtil.close(is2);
+                    }
+                } finally {
+                    IOUtil.close(is);
+                }
+            }
+        };
+    }
+
+    private static ArtifactDelta getResult(Future<ArtifactDelta> delta) throws IOException {
+        try {
+            return delta.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
     private String getContentType(String name) {
         name = name.toLowerCase(Locale.ENGLISH);
         if (name.endsWith(".class")) {
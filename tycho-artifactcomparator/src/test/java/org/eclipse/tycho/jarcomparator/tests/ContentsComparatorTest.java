@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012 Sonatype Inc. and others.
+ * Copyright (c) 2012, 2015 Sonatype Inc. and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.tycho.jarcomparator.tests;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.InputStream;
 
@@ -20,6 +21,11 @@ import org.eclipse.tycho.zipcomparator.internal.ContentsComparator;
 import org.eclipse.tycho.zipcomparator.internal.ManifestComparator;
 import org.eclipse.tycho.zipcomparator.internal.PropertiesComparator;
 import org.junit.Assert;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
 
 public class ContentsComparatorTest extends PlexusTestCase {
     public void testManifest() throws Exception {
@@ -40,6 +46,36 @@ public class ContentsComparatorTest extends PlexusTestCase {
                 "target/test-classes/org/eclipse/tycho/jarcomparator/testdata/JavaClass$1.class"));
     }
 
+    public void testIdenticalGeneratedClasses() throws Exception {
+        Assert.assertTrue(isClassEqual(classWithBranch(5, false), classWithBranch(5, false)));
+        Assert.assertTrue(isClassEqual(classWithAnnotations(new int[] { 1, 2 }, new byte[] { 3 }),
+                classWithAnnotations(new int[] { 1, 2 }, new byte[] { 3 })));
+        Assert.assertTrue(isClassEqual(classWithSwitchAndTryCatch(false, "java/lang/RuntimeException"),
+                classWithSwitchAndTryCatch(false, "java/lang/RuntimeException")));
+    }
+
+    public void testChangedInstruction() throws Exception {
+        Assert.assertFalse(isClassEqual(classWithBranch(5, false), classWithBranch(6, false)));
+    }
+
+    public void testChangedJumpTarget() throws Exception {
+        Assert.assertFalse(isClassEqual(classWithBranch(5, false), classWithBranch(5, true)));
+    }
+
+    public void testChangedPrimitiveArrayAnnotationValues() throws Exception {
+        Assert.assertFalse(isClassEqual(classWithAnnotations(new int[] { 1, 2 }, new byte[] { 3 }),
+                classWithAnnotations(new int[] { 1, 4 }, new byte[] { 3 })));
+        Assert.assertFalse(isClassEqual(classWithAnnotations(new int[] { 1, 2 }, new byte[] { 3 }),
+                classWithAnnotations(new int[] { 1, 2 }, new byte[] { 4 })));
+    }
+
+    public void testChangedSwitchAndTryCatch() throws Exception {
+        Assert.assertFalse(isClassEqual(classWithSwitchAndTryCatch(false, "java/lang/RuntimeException"),
+                classWithSwitchAndTryCatch(true, "java/lang/RuntimeException")));
+        Assert.assertFalse(isClassEqual(classWithSwitchAndTryCatch(false, "java/lang/RuntimeException"),
+                classWithSwitchAndTryCatch(false, "java/lang/IllegalStateException")));
+    }
+
     public void testProperties() throws Exception {
         Assert.assertTrue(isContentEqual(PropertiesComparator.TYPE, "src/test/resources/properties/props.properties",
                 "src/test/resources/properties/props.properties"));
@@ -49,6 +85,104 @@ public class ContentsComparatorTest extends PlexusTestCase {
                 "src/test/resources/properties/props3.properties"));
     }
 
+    private boolean isClassEqual(byte[] baseline, byte[] reactor) throws Exception {
+        ContentsComparator comparator = lookup(ContentsComparator.class, ClassfileComparator.TYPE);
+        return comparator.getDelta(new ByteArrayInputStream(baseline), new ByteArrayInputStream(reactor)) == null;
+    }
+
+    private static ClassWriter newClass() {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC | Opcodes.ACC_ABSTRACT, "test/Generated", null,
+                "java/lang/Object", null);
+        return writer;
+    }
+
+    /**
+     * Class with a method which returns <code>constant</code>, or 1 or 2 (depending on
+     * <code>jumpToSecond</code>) if the argument is 0.
+     */
+    private static byte[] classWithBranch(int constant, boolean jumpToSecond) {
+        ClassWriter writer = newClass();
+        MethodVisitor method = writer.visitMethod(Opcodes.ACC_STATIC, "test", "(I)I", null, null);
+        method.visitCode();
+        Label first = new Label();
+        Label second = new Label();
+        method.visitVarInsn(Opcodes.ILOAD, 0);
+        method.visitJumpInsn(Opcodes.IFEQ, jumpToSecond ? second : first);
+        method.visitIntInsn(Opcodes.BIPUSH, constant);
+        method.visitInsn(Opcodes.IRETURN);
+        method.visitLabel(first);
+        method.visitInsn(Opcodes.ICONST_1);
+        method.visitInsn(Opcodes.IRETURN);
+        method.visitLabel(second);
+        method.visitInsn(Opcodes.ICONST_2);
+        method.visitInsn(Opcodes.IRETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static byte[] classWithAnnotations(int[] annotationValue, byte[] annotationDefault) {
+        ClassWriter writer = newClass();
+        AnnotationVisitor annotation = writer.visitAnnotation("Ltest/Annotation;", true);
+        annotation.visit("ints", annotationValue);
+        annotation.visit("string", "value");
+        AnnotationVisitor array = annotation.visitArray("strings");
+        array.visit(null, "a");
+        array.visit(null, "b");
+        array.visitEnd();
+        annotation.visitEnd();
+
+        MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_ABSTRACT, "bytes", "()[B", null,
+                null);
+        AnnotationVisitor defaultValue = method.visitAnnotationDefault();
+        defaultValue.visit(null, annotationDefault);
+        defaultValue.visitEnd();
+        method.visitEnd();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    /**
+     * Class with a method with a table switch within a try/catch block for the given exception
+     * type.
+     */
+    private static byte[] classWithSwitchAndTryCatch(boolean swapCases, String exceptionType) {
+        ClassWriter writer = newClass();
+        MethodVisitor method = writer.visitMethod(Opcodes.ACC_STATIC, "test", "(I)I", null, null);
+        method.visitCode();
+        Label start = new Label();
+        Label end = new Label();
+        Label handler = new Label();
+        Label case0 = new Label();
+        Label case1 = new Label();
+        Label defaultCase = new Label();
+        method.visitTryCatchBlock(start, end, handler, exceptionType);
+        method.visitLabel(start);
+        method.visitVarInsn(Opcodes.ILOAD, 0);
+        method.visitTableSwitchInsn(0, 1, defaultCase, swapCases ? new Label[] { case1, case0 } : new Label[] {
+                case0, case1 });
+        method.visitLabel(case0);
+        method.visitInsn(Opcodes.ICONST_0);
+        method.visitInsn(Opcodes.IRETURN);
+        method.visitLabel(case1);
+        method.visitInsn(Opcodes.ICONST_1);
+        method.visitInsn(Opcodes.IRETURN);
+        method.visitLabel(defaultCase);
+        method.visitInsn(Opcodes.ICONST_2);
+        method.visitInsn(Opcodes.IRETURN);
+        method.visitLabel(end);
+        method.visitLabel(handler);
+        method.visitInsn(Opcodes.POP);
+        method.visitInsn(Opcodes.ICONST_M1);
+        method.visitInsn(Opcodes.IRETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
     private boolean isContentEqual(String type, String baseline, String reactor) throws Exception {
         ContentsComparator comparator = lookup(ContentsComparator.class, type);
         InputStream is = new FileInputStream(baseline);
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2015 SAP SE and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    SAP SE - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.tycho.jarcomparator.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.codehaus.plexus.PlexusTestCase;
+import org.eclipse.tycho.artifactcomparator.ArtifactComparator;
+import org.eclipse.tycho.artifactcomparator.ArtifactDelta;
+import org.eclipse.tycho.zipcomparator.internal.CompoundArtifactDelta;
+import org.eclipse.tycho.zipcomparator.internal.ZipComparatorImpl;
+import org.junit.Assert;
+
+public class ZipComparatorTest extends PlexusTestCase {
+
+    private File baseline;
+    private File reactor;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        baseline = File.createTempFile("baseline", ".zip");
+        reactor = File.createTempFile("reactor", ".zip");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        baseline.delete();
+        reactor.delete();
+        super.tearDown();
+    }
+
+    public void testIdenticalZips() throws Exception {
+        Map<String, String> content = new LinkedHashMap<>();
+        content.put("a.txt", "a");
+        content.put("b.properties", "key=value");
+        writeZip(baseline, content);
+        writeZip(reactor, content);
+
+        Assert.assertNull(getDelta());
+    }
+
+    public void testDifferentEntries() throws Exception {
+        Map<String, String> baselineContent = new LinkedHashMap<>();
+        baselineContent.put("same.txt", "same");
+        baselineContent.put("changed.txt", "old");
+        baselineContent.put("equivalent.properties", "key=value");
+        baselineContent.put("removed.txt", "removed");
+        writeZip(baseline, baselineContent);
+        Map<String, String> reactorContent = new LinkedHashMap<>();
+        reactorContent.put("same.txt", "same");
+        reactorContent.put("changed.txt", "new");
+        reactorContent.put("equivalent.properties", "key = value");
+        reactorContent.put("added.txt", "added");
+        writeZip(reactor, reactorContent);
+
+        CompoundArtifactDelta delta = getDelta();
+
+        Assert.assertEquals("[added.txt, changed.txt, removed.txt]", delta.getMembers().keySet().toString());
+    }
+
+    public void testDifferentNestedZips() throws Exception {
+        Map<String, String> nestedBaselineContent = new LinkedHashMap<>();
+        Map<String, String> nestedReactorContent = new LinkedHashMap<>();
+        for (int i = 0; i < 4; i++) {
+            nestedBaselineContent.put("file" + i + ".txt", "old");
+            nestedReactorContent.put("file" + i + ".txt", "new");
+        }
+        Map<String, byte[]> baselineContent = new LinkedHashMap<>();
+        Map<String, byte[]> reactorContent = new LinkedHashMap<>();
+        for (int i = 0; i < 4; i++) {
+            baselineContent.put("nested" + i + ".jar", toZip(nestedBaselineContent));
+            reactorContent.put("nested" + i + ".jar", toZip(nestedReactorContent));
+        }
+        writeZipEntries(baseline, baselineContent);
+        writeZipEntries(reactor, reactorContent);
+
+        CompoundArtifactDelta delta = getDelta();
+
+        Assert.assertEquals("[nested0.jar, nested1.jar, nested2.jar, nested3.jar]", delta.getMembers().keySet()
+                .toString());
+        for (ArtifactDelta nestedDelta : delta.getMembers().values()) {
+            Assert.assertEquals("[file0.txt, file1.txt, file2.txt, file3.txt]",
+                    ((CompoundArtifactDelta) nestedDelta).getMembers().keySet().toString());
+        }
+    }
+
+    private CompoundArtifactDelta getDelta() throws Exception {
+        ArtifactComparator subject = lookup(ArtifactComparator.class, ZipComparatorImpl.TYPE);
+        return (CompoundArtifactDelta) subject.getDelta(baseline, reactor);
+    }
+
+    private static void writeZip(File file, Map<String, String> content) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            writeZip(out, content);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static byte[] toZip(Map<String, String> content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeZip(out, content);
+        return out.toByteArray();
+    }
+
+    private static void writeZip(OutputStream out, Map<String, String> content) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : content.entrySet()) {
+            entries.put(entry.getKey(), entry.getValue().getBytes("UTF-8"));
+        }
+        writeZipEntries(out, entries);
+    }
+
+    private static void writeZipEntries(File file, Map<String, byte[]> content) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            writeZipEntries(out, content);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void writeZipEntries(OutputStream out, Map<String, byte[]> content) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        for (Map.Entry<String, byte[]> entry : content.entrySet()) {
+            zip.putNextEntry(new ZipEntry(entry.getKey()));
+            zip.write(entry.getValue());
+            zip.closeEntry();
+        }
+        zip.finish();
+    }
+}
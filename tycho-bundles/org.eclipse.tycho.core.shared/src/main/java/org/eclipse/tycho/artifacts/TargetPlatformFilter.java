@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011 SAP AG and others.
+ * Copyright (c) 2011, 2015 SAP AG and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -61,6 +61,29 @@ public final class TargetPlatformFilter {
         return actionPattern;
     }
 
+    @Override
+    public int hashCode() {
+        final int prime = 17;
+        int result = 1;
+        result = prime * result + ((scopePattern == null) ? 0 : scopePattern.hashCode());
+        result = prime * result + ((action == null) ? 0 : action.hashCode());
+        result = prime * result + ((actionPattern == null) ? 0 : actionPattern.hashCode());
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof TargetPlatformFilter))
+            return false;
+
+        TargetPlatformFilter other = (TargetPlatformFilter) obj;
+        return CapabilityPattern.isEqual(this.scopePattern, other.scopePattern) //
+                && this.action == other.action //
+                && CapabilityPattern.isEqual(this.actionPattern, other.actionPattern);
+    }
+
     @Override
     public String toString() {
         String commonPart = "TargetPlatformFilter(scope=" + scopePattern + ", action=" + action;
@@ -99,6 +99,31 @@ public class LocalMetadataRepositoryTest extends BaseMavenRepositoryTest {
         Assert.assertEquals(1, ius.size());
     }
 
+    @Test
+    public void testQueryAfterAddingUnitsToIndexedRepository() throws CoreException {
+        File location = new File("target/indexedQueryRepo");
+        LocalMetadataRepository repository = createRepository(location);
+        repository.addInstallableUnits(Arrays.asList(createIU("test", "artifact")));
+        // creates the index
+        Assert.assertEquals(1, repository.query(QueryUtil.createIUQuery("test"), monitor).toSet().size());
+
+        repository.addInstallableUnits(Arrays.asList(createIU("test2", "artifact2")));
+
+        Assert.assertEquals(1, repository.query(QueryUtil.createIUQuery("test"), monitor).toSet().size());
+        Assert.assertEquals(1, repository.query(QueryUtil.createIUQuery("test2"), monitor).toSet().size());
+        Assert.assertEquals(2, repository.query(QueryUtil.ALL_UNITS, monitor).toSet().size());
+    }
+
+    private static IInstallableUnit createIU(String id, String artifactId) {
+        InstallableUnitDescription iud = new MetadataFactory.InstallableUnitDescription();
+        iud.setId(id);
+        iud.setVersion(Version.parseVersion("1.0.0"));
+        iud.setProperty(RepositoryLayoutHelper.PROP_GROUP_ID, "group");
+        iud.setProperty(RepositoryLayoutHelper.PROP_ARTIFACT_ID, artifactId);
+        iud.setProperty(RepositoryLayoutHelper.PROP_VERSION, "version");
+        return MetadataFactory.createInstallableUnit(iud);
+    }
+
     @Test
     public void testOutdatedIndex() throws CoreException {
         // create and fill repo
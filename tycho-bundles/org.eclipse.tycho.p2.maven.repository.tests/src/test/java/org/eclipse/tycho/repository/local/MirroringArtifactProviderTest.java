@@ -106,12 +106,13 @@ public class MirroringArtifactProviderTest {
     private ProbeArtifactSink testSink;
     private ProbeRawArtifactSink rawTestSink;
 
+    private RepositoryArtifactProvider remoteProvider;
     private MirroringArtifactProvider subject;
     private IStatus status;
 
     @Before
     public void initSubject() throws Exception {
-        RepositoryArtifactProvider remoteProvider = new RepositoryArtifactProvider(
+        remoteProvider = new RepositoryArtifactProvider(
                 Collections.singletonList(TestRepositoryContent.REPO_BUNDLE_AB),
                 ArtifactTransferPolicies.forRemoteArtifacts(), p2Context.getAgent());
 
@@ -224,6 +225,28 @@ public class MirroringArtifactProviderTest {
         assertThat(subject.getArtifactFile(OTHER_KEY), is(nullValue()));
     }
 
+    @Test
+    public void testPrefetchArtifactsWithSingleThread() {
+        subject.prefetchArtifacts(Arrays.asList(BUNDLE_A_KEY, BUNDLE_B_KEY));
+
+        // artifacts are only mirrored on access
+        assertNotMirrored(BUNDLE_A_KEY);
+        assertNotMirrored(BUNDLE_B_KEY);
+    }
+
+    @Test
+    public void testPrefetchArtifactsInParallel() {
+        subject = MirroringArtifactProvider.createInstance(localRepository, remoteProvider, mirrorPacked, 4,
+                logVerifier.getLogger());
+
+        subject.prefetchArtifacts(Arrays.asList(BUNDLE_A_KEY, BUNDLE_B_KEY, BUNDLE_L_KEY, OTHER_KEY));
+
+        assertMirrored(BUNDLE_A_KEY);
+        assertMirrored(BUNDLE_B_KEY);
+        assertThat(subject.getArtifactFile(BUNDLE_B_KEY), is(new File(localRepositoryRoot,
+                localRepoPathOf(BUNDLE_B_KEY))));
+    }
+
     @Test
     public void testGetArtifactDescriptors_NoPackedMirroring() {
         assumeFalse(mirrorPacked);
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2015 SAP SE and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    SAP SE - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.tycho.repository.local.index;
+
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+
+import org.eclipse.tycho.core.shared.MavenLogger;
+import org.eclipse.tycho.p2.repository.GAV;
+import org.eclipse.tycho.p2.repository.TychoRepositoryIndex;
+import org.eclipse.tycho.test.util.NoopFileLockService;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileBasedTychoRepositoryIndexTest {
+
+    private static final GAV GAV_1 = new GAV("group", "artifact1", "1.0.0");
+    private static final GAV GAV_2 = new GAV("group", "artifact2", "1.0.0");
+
+    @Rule
+    public TemporaryFolder tempManager = new TemporaryFolder();
+
+    private File localRepositoryRoot;
+
+    @Before
+    public void initLocalRepository() throws Exception {
+        localRepositoryRoot = tempManager.newFolder("localrepo");
+    }
+
+    @Test
+    public void testSavedChangesAreVisibleToNewInstance() throws Exception {
+        TychoRepositoryIndex subject = createIndex();
+        subject.addGav(GAV_1);
+        subject.addGav(GAV_2);
+        subject.save();
+        subject.removeGav(GAV_1);
+        subject.save();
+
+        TychoRepositoryIndex reloaded = createIndex();
+        assertThat(reloaded.getProjectGAVs(), not(hasItem(GAV_1)));
+        assertThat(reloaded.getProjectGAVs(), hasItem(GAV_2));
+    }
+
+    @Test
+    public void testSaveWithoutChangesDoesNotWriteIndexFile() throws Exception {
+        TychoRepositoryIndex subject = createIndex();
+        subject.save();
+
+        assertThat(getIndexFile().exists(), is(false));
+    }
+
+    @Test
+    public void testSaveWithoutChangesKeepsChangesOfOtherInstances() throws Exception {
+        TychoRepositoryIndex subject1 = createIndex();
+        subject1.addGav(GAV_1);
+        subject1.save();
+        TychoRepositoryIndex subject2 = createIndex();
+        subject1.addGav(GAV_2);
+        subject1.save();
+
+        subject2.save();
+
+        TychoRepositoryIndex reloaded = createIndex();
+        assertThat(reloaded.getProjectGAVs(), hasItem(GAV_1));
+        assertThat(reloaded.getProjectGAVs(), hasItem(GAV_2));
+    }
+
+    @Test
+    public void testChangesOfConcurrentInstancesAreMerged() throws Exception {
+        TychoRepositoryIndex subject1 = createIndex();
+        TychoRepositoryIndex subject2 = createIndex();
+        subject1.addGav(GAV_1);
+        subject2.addGav(GAV_2);
+        subject1.save();
+        subject2.save();
+
+        TychoRepositoryIndex reloaded = createIndex();
+        assertThat(reloaded.getProjectGAVs(), hasItem(GAV_1));
+        assertThat(reloaded.getProjectGAVs(), hasItem(GAV_2));
+    }
+
+    private File getIndexFile() {
+        return new File(localRepositoryRoot, FileBasedTychoRepositoryIndex.METADATA_INDEX_RELPATH);
+    }
+
+    private TychoRepositoryIndex createIndex() {
+        return FileBasedTychoRepositoryIndex.createMetadataIndex(localRepositoryRoot, new NoopFileLockService(),
+                mock(MavenLogger.class));
+    }
+}
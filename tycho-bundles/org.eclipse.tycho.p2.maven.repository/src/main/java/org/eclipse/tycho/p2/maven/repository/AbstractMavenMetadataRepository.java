@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2012 Sonatype Inc. and others.
+ * Copyright (c) 2008, 2015 Sonatype Inc. and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -34,7 +34,13 @@ import org.eclipse.tycho.p2.repository.GAV;
 import org.eclipse.tycho.p2.repository.RepositoryLayoutHelper;
 import org.eclipse.tycho.p2.repository.RepositoryReader;
 import org.eclipse.tycho.p2.repository.TychoRepositoryIndex;
+import org.eclipse.tycho.repository.p2base.metadata.QueryableCollection;
 
+/**
+ * Base class for metadata repositories with per-GAV metadata files. The metadata files are only
+ * read on first access to the repository content, and queries are answered from a lazily created
+ * index on the units, which is updated when units are added.
+ */
 public abstract class AbstractMavenMetadataRepository extends AbstractMetadataRepository {
 
     protected final TychoRepositoryIndex metadataIndex;
@@ -45,6 +51,13 @@ public abstract class AbstractMavenMetadataRepository extends AbstractMetadataRe
 
     protected Map<GAV, Set<IInstallableUnit>> unitsMap = new LinkedHashMap<>();
 
+    private boolean loaded;
+
+    /**
+     * Indexed view on the {@link #units}; <code>null</code> if not yet created.
+     */
+    private QueryableCollection indexedUnits;
+
     public AbstractMavenMetadataRepository(URI location, TychoRepositoryIndex metadataIndex,
             RepositoryReader contentLocator) {
         this(Activator.getProvisioningAgent(), location, metadataIndex, contentLocator);
@@ -59,11 +72,38 @@ public abstract class AbstractMavenMetadataRepository extends AbstractMetadataRe
         this.metadataIndex = metadataIndex;
         this.contentLocator = contentLocator;
 
-        if (metadataIndex != null && contentLocator != null) {
+        // there is nothing to load unless both are set
+        this.loaded = metadataIndex == null || contentLocator == null;
+    }
+
+    /**
+     * Loads the repository content if this hasn't been done yet. Must be called before accessing
+     * {@link #units} or {@link #unitsMap}.
+     */
+    protected final synchronized void ensureLoaded() {
+        if (!loaded) {
+            loaded = true;
             load();
         }
     }
 
+    /**
+     * Must be called after adding units to {@link #units}.
+     */
+    protected final synchronized void unitsAdded(Collection<IInstallableUnit> addedUnits) {
+        if (indexedUnits != null) {
+            indexedUnits.addAll(addedUnits);
+        }
+    }
+
+    private synchronized QueryableCollection getIndexedUnits() {
+        ensureLoaded();
+        if (indexedUnits == null) {
+            indexedUnits = new QueryableCollection(units);
+        }
+        return indexedUnits;
+    }
+
     protected void load() {
         MetadataIO io = new MetadataIO();
 
@@ -99,13 +139,14 @@ public abstract class AbstractMavenMetadataRepository extends AbstractMetadataRe
 
     @Override
     public IQueryResult<IInstallableUnit> query(IQuery<IInstallableUnit> query, IProgressMonitor monitor) {
-        return query.perform(units.iterator());
+        return getIndexedUnits().query(query, monitor);
     }
 
     /**
      * For testing purposes only
      */
     public Map<GAV, Set<IInstallableUnit>> getGAVs() {
+        ensureLoaded();
         return unitsMap;
     }
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2012 Sonatype Inc. and others.
+ * Copyright (c) 2008, 2015 Sonatype Inc. and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -24,15 +24,27 @@ import javax.xml.parsers.ParserConfigurationException;
 import org.eclipse.equinox.p2.repository.artifact.IArtifactDescriptor;
 import org.eclipse.tycho.p2.maven.repository.Activator;
 import org.eclipse.tycho.p2.maven.repository.xmlio35.SimpleArtifactRepositoryIO;
+import org.eclipse.tycho.p2.maven.repository.xmlio35.XMLParserPool;
 import org.eclipse.tycho.repository.util.internal.BundleConstants;
 import org.osgi.framework.BundleContext;
 import org.xml.sax.Attributes;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
+/**
+ * Reader and writer for p2 artifact descriptors. Instances may be used concurrently; parsers are
+ * pooled and reused across all instances.
+ */
 @SuppressWarnings("restriction")
 public class ArtifactsIO {
 
+    private static final XMLParserPool<Parser35M7> PARSERS = new XMLParserPool<Parser35M7>() {
+        @Override
+        protected Parser35M7 createParser() {
+            return new Parser35M7(Activator.getContext(), BundleConstants.BUNDLE_ID);
+        }
+    };
+
     private static class Writer35M7 extends SimpleArtifactRepositoryIO.Writer {
 
         public Writer35M7(OutputStream output) throws IOException {
@@ -55,12 +67,11 @@ public class ArtifactsIO {
         }
 
         @Override
-        public synchronized void parse(InputStream stream) throws IOException {
+        public void parse(InputStream stream) throws IOException {
             this.status = null;
+            this.artifacts = null;
             try {
-                // TODO: currently not caching the parser since we make no assumptions
-                // or restrictions on concurrent parsing
-                getParser();
+                initParser();
                 ArtifactsHandler artifactsHandler = new ArtifactsHandler();
                 xmlReader.setContentHandler(new RepositoryDocHandler(ARTIFACTS_ELEMENT, artifactsHandler));
                 xmlReader.parse(new InputSource(stream));
@@ -113,11 +124,13 @@ public class ArtifactsIO {
     }
 
     public Set<IArtifactDescriptor> readXML(InputStream is) throws IOException {
-        Parser35M7 parser = new Parser35M7(Activator.getContext(), BundleConstants.BUNDLE_ID);
-
+        Parser35M7 parser = PARSERS.acquire();
         parser.parse(is);
+        Set<IArtifactDescriptor> artifacts = parser.getArtifacts();
+        // only parsers which completed successfully are reused
+        PARSERS.release(parser);
 
-        return parser.getArtifacts();
+        return artifacts;
     }
 
     public void writeXML(Set<? extends IArtifactDescriptor> descriptors, OutputStream os) throws IOException {
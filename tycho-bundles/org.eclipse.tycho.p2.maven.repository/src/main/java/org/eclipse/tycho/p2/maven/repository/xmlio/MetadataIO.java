@@ -35,13 +35,26 @@ import org.eclipse.equinox.p2.metadata.IInstallableUnit;
 import org.eclipse.equinox.p2.metadata.MetadataFactory;
 import org.eclipse.equinox.p2.metadata.MetadataFactory.InstallableUnitDescription;
 import org.eclipse.tycho.p2.maven.repository.Activator;
+import org.eclipse.tycho.p2.maven.repository.xmlio35.XMLParserPool;
 import org.eclipse.tycho.repository.util.internal.BundleConstants;
 import org.xml.sax.Attributes;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
+/**
+ * Reader and writer for installable units. Instances may be used concurrently; parsers are pooled
+ * and reused across all instances.
+ */
 @SuppressWarnings("restriction")
 public class MetadataIO {
+
+    private static final XMLParserPool<Parser> PARSERS = new XMLParserPool<Parser>() {
+        @Override
+        protected Parser createParser() {
+            return new Parser();
+        }
+    };
+
     private static class Writer extends MetadataWriter {
 
         public Writer(OutputStream output) throws UnsupportedEncodingException {
@@ -67,13 +80,8 @@ public class MetadataIO {
             REPO, IU
         }
 
-        private PARSER_MODE mode;
-
-        private List<InstallableUnitDescription> units;
-
-        public Parser(PARSER_MODE mode) {
+        public Parser() {
             super(Activator.getContext(), BundleConstants.BUNDLE_ID);
-            this.mode = mode;
         }
 
         @Override
@@ -88,14 +96,23 @@ public class MetadataIO {
             return null;
         }
 
-        public synchronized void parse(InputStream stream, IProgressMonitor monitor) throws IOException {
+        /**
+         * Parses the given stream. A parser instance must not be used by several threads
+         * concurrently, but it may be reused for subsequent parse operations.
+         */
+        public List<InstallableUnitDescription> parse(InputStream stream, PARSER_MODE mode, IProgressMonitor monitor)
+                throws IOException {
             this.status = null;
             setProgressMonitor(monitor);
             monitor.beginTask(Messages.repo_loading, IProgressMonitor.UNKNOWN);
+            List<InstallableUnitDescription> units = null;
             try {
-                // TODO: currently not caching the parser since we make no assumptions
-                // or restrictions on concurrent parsing
-                getParser();
+                // the SAX reader is created on first use and then reused
+                if (xmlReader == null) {
+                    synchronized (XMLParserPool.SAX_PARSER_CREATION_LOCK) {
+                        getParser();
+                    }
+                }
                 InstallableUnitsHandler handler = new InstallableUnitsHandler();
                 if (mode.equals(PARSER_MODE.REPO))
                     xmlReader.setContentHandler(new RepositoryDocHandler(INSTALLABLE_UNITS_ELEMENT, handler));
@@ -115,6 +132,7 @@ public class MetadataIO {
                 monitor.done();
                 stream.close();
             }
+            return units;
         }
 
         private final class RepositoryDocHandler extends DocHandler {
@@ -158,33 +176,33 @@ public class MetadataIO {
                 }
             }
         }
-
-        public List<InstallableUnitDescription> getUnits() {
-            return units;
-        }
     }
 
     public InstallableUnitDescription readOneIU(InputStream is) throws IOException {
-        Parser parser = new Parser(Parser.PARSER_MODE.IU);
-
-        parser.parse(is, new NullProgressMonitor());
-        return parser.getUnits().get(0);
+        List<InstallableUnitDescription> units = parse(is, Parser.PARSER_MODE.IU);
+        return units.get(0);
     }
 
     public Set<IInstallableUnit> readXML(InputStream is) throws IOException {
-        Parser parser = new Parser(Parser.PARSER_MODE.REPO);
-
-        parser.parse(is, new NullProgressMonitor());
+        List<InstallableUnitDescription> descriptions = parse(is, Parser.PARSER_MODE.REPO);
 
         Set<IInstallableUnit> units = new LinkedHashSet<>();
 
-        for (InstallableUnitDescription desc : parser.getUnits()) {
+        for (InstallableUnitDescription desc : descriptions) {
             units.add(MetadataFactory.createInstallableUnit(desc));
         }
 
         return units;
     }
 
+    private static List<InstallableUnitDescription> parse(InputStream is, Parser.PARSER_MODE mode) throws IOException {
+        Parser parser = PARSERS.acquire();
+        List<InstallableUnitDescription> units = parser.parse(is, mode, new NullProgressMonitor());
+        // only parsers which completed successfully are reused
+        PARSERS.release(parser);
+        return units;
+    }
+
     public void writeXML(Set<IInstallableUnit> units, OutputStream os) throws IOException {
         new Writer(os).write(units);
     }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2010 IBM Corporation and others.
+ * Copyright (c) 2007, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -62,6 +62,13 @@ import org.xml.sax.SAXException;
 @SuppressWarnings("restriction")
 public class SimpleArtifactRepositoryIO {
 
+    private static final XMLParserPool<Parser> PARSERS = new XMLParserPool<Parser>() {
+        @Override
+        protected Parser createParser() {
+            return new Parser(Activator.getContext(), Activator.ID);
+        }
+    };
+
     /**
      * Writes the given artifact repository to the stream. This method performs buffering, and
      * closes the stream when finished.
@@ -96,8 +103,8 @@ public class SimpleArtifactRepositoryIO {
         try {
             try {
                 bufferedInput = new BufferedInputStream(input);
-                Parser repositoryParser = new Parser(Activator.getContext(), Activator.ID);
-                repositoryParser.parse(input);
+                Parser repositoryParser = PARSERS.acquire();
+                repositoryParser.parse(bufferedInput);
                 IStatus result = repositoryParser.getStatus();
                 switch (result.getSeverity()) {
                 case IStatus.CANCEL:
@@ -117,6 +124,7 @@ public class SimpleArtifactRepositoryIO {
                 if (repository == null)
                     throw new ProvisionException(new Status(IStatus.ERROR, Activator.ID,
                             ProvisionException.REPOSITORY_FAILED_READ, Messages.io_parseError, null));
+                PARSERS.release(repositoryParser);
                 return repository;
             } finally {
                 if (bufferedInput != null)
@@ -248,12 +256,15 @@ public class SimpleArtifactRepositoryIO {
             super(context, bundleId);
         }
 
-        public synchronized void parse(InputStream stream) throws IOException {
+        /**
+         * Parses the given stream. A parser instance must not be used by several threads
+         * concurrently, but it may be reused for subsequent parse operations.
+         */
+        public void parse(InputStream stream) throws IOException {
             this.status = null;
+            this.theRepository = null;
             try {
-                // TODO: currently not caching the parser since we make no assumptions
-                //		 or restrictions on concurrent parsing
-                getParser();
+                initParser();
                 RepositoryHandler repositoryHandler = new RepositoryHandler();
                 xmlReader.setContentHandler(new RepositoryDocHandler(REPOSITORY_ELEMENT, repositoryHandler));
                 xmlReader.parse(new InputSource(stream));
@@ -269,6 +280,18 @@ public class SimpleArtifactRepositoryIO {
             }
         }
 
+        /**
+         * Creates the SAX reader on first use; the reader is reused for subsequent parse
+         * operations.
+         */
+        protected void initParser() throws ParserConfigurationException, SAXException {
+            if (xmlReader == null) {
+                synchronized (XMLParserPool.SAX_PARSER_CREATION_LOCK) {
+                    getParser();
+                }
+            }
+        }
+
         public SimpleArtifactRepository getRepository() {
             return theRepository;
         }
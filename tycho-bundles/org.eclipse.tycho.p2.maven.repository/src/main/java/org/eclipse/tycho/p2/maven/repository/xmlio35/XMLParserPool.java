@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2015 SAP SE and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    SAP SE - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.tycho.p2.maven.repository.xmlio35;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Pool of reusable p2 XML parsers. Creating a parser and its SAX reader is expensive compared to
+ * parsing a small file, so parsers are reused instead of being created per file. A parser taken
+ * from the pool is used exclusively by the caller until it is returned, so that parsing needs no
+ * synchronization.
+ */
+public abstract class XMLParserPool<P> {
+
+    /**
+     * Guards the creation of SAX readers because the shared parser factory is not necessarily
+     * thread-safe.
+     */
+    public static final Object SAX_PARSER_CREATION_LOCK = new Object();
+
+    private final ConcurrentLinkedQueue<P> idleParsers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Returns an idle parser from the pool, or a new parser if there is none.
+     */
+    public P acquire() {
+        P parser = idleParsers.poll();
+        if (parser == null) {
+            parser = createParser();
+        }
+        return parser;
+    }
+
+    /**
+     * Returns a parser to the pool. Parsers which failed to parse a file should not be returned so
+     * that an inconsistent parser state cannot affect subsequent parse operations.
+     */
+    public void release(P parser) {
+        idleParsers.offer(parser);
+    }
+
+    protected abstract P createParser();
+
+}
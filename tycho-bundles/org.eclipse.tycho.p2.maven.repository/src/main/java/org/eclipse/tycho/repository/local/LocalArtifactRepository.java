@@ -17,8 +17,15 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.equinox.p2.core.IProvisioningAgent;
 import org.eclipse.equinox.p2.metadata.IArtifactKey;
@@ -36,6 +43,12 @@ import org.eclipse.tycho.repository.p2base.artifact.repository.ArtifactRepositor
 
 public class LocalArtifactRepository extends ArtifactRepositoryBaseImpl<GAVArtifactDescriptor> {
 
+    /**
+     * Minimum number of p2artifacts.xml files per thread when loading the repository; parallel
+     * loading isn't worth the overhead for small repositories.
+     */
+    private static final int MIN_FILES_PER_LOAD_THREAD = 50;
+
     private Set<IArtifactDescriptor> descriptorsOnLastSave;
     private final LocalRepositoryP2Indices localRepoIndices;
     private final RepositoryReader contentLocator;
@@ -65,35 +78,87 @@ public class LocalArtifactRepository extends ArtifactRepositoryBaseImpl<GAVArtif
         final ArtifactsIO io = new ArtifactsIO();
         TychoRepositoryIndex index = localRepoIndices.getArtifactsIndex();
 
+        List<File> artifactsFiles = new ArrayList<>();
         for (final GAV gav : index.getProjectGAVs()) {
-            try {
-                File localArtifactFileLocation = contentLocator.getLocalArtifactLocation(gav,
-                        RepositoryLayoutHelper.CLASSIFIER_P2_ARTIFACTS, RepositoryLayoutHelper.EXTENSION_P2_ARTIFACTS);
-                if (!localArtifactFileLocation.exists()) {
-                    // if files have been manually removed from the repository, simply remove them from the index (bug 351080)
-                    index.removeGav(gav);
-                } else {
-                    final InputStream is = new FileInputStream(contentLocator.getLocalArtifactLocation(gav,
-                            RepositoryLayoutHelper.CLASSIFIER_P2_ARTIFACTS,
-                            RepositoryLayoutHelper.EXTENSION_P2_ARTIFACTS));
-                    try {
-                        final Set<IArtifactDescriptor> gavDescriptors = io.readXML(is);
-                        for (IArtifactDescriptor descriptor : gavDescriptors) {
-                            internalAddDescriptor(descriptor);
-                        }
-                    } finally {
-                        is.close();
-                    }
-                }
-            } catch (IOException e) {
-                // TODO throw properly typed exception if repository cannot be loaded
-                e.printStackTrace();
+            File localArtifactFileLocation = contentLocator.getLocalArtifactLocation(gav,
+                    RepositoryLayoutHelper.CLASSIFIER_P2_ARTIFACTS, RepositoryLayoutHelper.EXTENSION_P2_ARTIFACTS);
+            if (!localArtifactFileLocation.exists()) {
+                // if files have been manually removed from the repository, simply remove them from the index (bug 351080)
+                index.removeGav(gav);
+            } else {
+                artifactsFiles.add(localArtifactFileLocation);
+            }
+        }
+
+        for (Set<IArtifactDescriptor> gavDescriptors : readArtifactsFiles(io, artifactsFiles)) {
+            for (IArtifactDescriptor descriptor : gavDescriptors) {
+                internalAddDescriptor(descriptor);
             }
         }
 
         descriptorsOnLastSave = new HashSet<IArtifactDescriptor>(descriptors);
     }
 
+    /**
+     * Parses the given files, in parallel if there are enough of them. The result is in the order of
+     * the files; files which could not be read are omitted.
+     */
+    private static List<Set<IArtifactDescriptor>> readArtifactsFiles(final ArtifactsIO io, List<File> files) {
+        int threads = Math.min(Runtime.getRuntime().availableProcessors(), files.size() / MIN_FILES_PER_LOAD_THREAD);
+        List<Set<IArtifactDescriptor>> result = new ArrayList<>(files.size());
+        if (threads <= 1) {
+            for (File file : files) {
+                addIfNotNull(result, readArtifactsFile(io, file));
+            }
+            return result;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Set<IArtifactDescriptor>>> futures = new ArrayList<>(files.size());
+            for (final File file : files) {
+                futures.add(executor.submit(new Callable<Set<IArtifactDescriptor>>() {
+                    @Override
+                    public Set<IArtifactDescriptor> call() {
+                        return readArtifactsFile(io, file);
+                    }
+                }));
+            }
+            for (Future<Set<IArtifactDescriptor>> future : futures) {
+                addIfNotNull(result, future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while loading the local artifact repository", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error while loading the local artifact repository", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
+    private static Set<IArtifactDescriptor> readArtifactsFile(ArtifactsIO io, File file) {
+        try {
+            InputStream is = new FileInputStream(file);
+            try {
+                return io.readXML(is);
+            } finally {
+                is.close();
+            }
+        } catch (IOException e) {
+            // TODO throw properly typed exception if repository cannot be loaded
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static <T> void addIfNotNull(List<T> list, T element) {
+        if (element != null) {
+            list.add(element);
+        }
+    }
+
     private void saveMaven() {
         File location = getBasedir();
 
@@ -101,12 +166,14 @@ public class LocalArtifactRepository extends ArtifactRepositoryBaseImpl<GAVArtif
 
         ArtifactsIO io = new ArtifactsIO();
 
-        Set<IArtifactDescriptor> changedDescriptors = new HashSet<IArtifactDescriptor>(descriptors);
-        changedDescriptors.removeAll(descriptorsOnLastSave);
-
         Set<IArtifactKey> changedKeys = new HashSet<>();
-        for (IArtifactDescriptor changedDescriptor : changedDescriptors) {
-            changedKeys.add(changedDescriptor.getArtifactKey());
+        for (IArtifactDescriptor descriptor : descriptors) {
+            if (!descriptorsOnLastSave.contains(descriptor)) {
+                changedKeys.add(descriptor.getArtifactKey());
+            }
+        }
+        if (changedKeys.isEmpty()) {
+            return;
         }
 
         for (IArtifactKey key : changedKeys) {
@@ -156,7 +223,7 @@ public class LocalArtifactRepository extends ArtifactRepositoryBaseImpl<GAVArtif
 //        // ...
 //    }
 
-    public void save() {
+    public synchronized void save() {
         saveMaven();
     }
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2011 Sonatype Inc. and others.
+ * Copyright (c) 2008, 2015 Sonatype Inc. and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,7 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -61,7 +62,10 @@ public class LocalMetadataRepository extends AbstractMavenMetadataRepository {
     }
 
     public void addInstallableUnit(IInstallableUnit unit, GAV gav) {
-        this.units.add(unit);
+        ensureLoaded();
+        if (this.units.add(unit)) {
+            unitsAdded(Collections.singleton(unit));
+        }
 
         Set<IInstallableUnit> gavUnits = unitsMap.get(gav);
         if (gavUnits == null) {
@@ -74,6 +78,9 @@ public class LocalMetadataRepository extends AbstractMavenMetadataRepository {
     }
 
     public void save() {
+        // loading may remove stale entries from the index, which shall be persisted
+        ensureLoaded();
+
         File basedir = new File(getLocation());
 
         MetadataIO io = new MetadataIO();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2013 SAP SE and others.
+ * Copyright (c) 2012, 2015 SAP SE and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,17 @@ package org.eclipse.tycho.repository.local;
 import static org.eclipse.tycho.repository.util.internal.BundleConstants.BUNDLE_ID;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -53,6 +64,10 @@ import org.eclipse.tycho.repository.util.StatusTool;
  * format, or the canonical format and the packed format.</li>
  * </ul>
  * </p>
+ * <p>
+ * Instances may be used by several threads in parallel. If configured with more than one download
+ * thread, {@link #prefetchArtifacts(Collection)} downloads missing artifacts concurrently.
+ * </p>
  */
 public class MirroringArtifactProvider implements IRawArtifactFileProvider {
 
@@ -64,6 +79,15 @@ public class MirroringArtifactProvider implements IRawArtifactFileProvider {
 
     protected final IProgressMonitor monitor;
 
+    private final int downloadThreads;
+
+    /**
+     * Locks for the artifacts currently being mirrored, so that each artifact is only downloaded
+     * once even if it is requested by several threads at the same time. Entries are removed when
+     * the mirroring of the artifact has finished.
+     */
+    private final ConcurrentMap<IArtifactKey, Object> mirroringLocks = new ConcurrentHashMap<>();
+
     /**
      * Creates a new {@link MirroringArtifactProvider} instance.
      * 
@@ -81,17 +105,30 @@ public class MirroringArtifactProvider implements IRawArtifactFileProvider {
      */
     public static MirroringArtifactProvider createInstance(LocalArtifactRepository localArtifactRepository,
             IRawArtifactProvider remoteProviders, boolean mirrorPacked, MavenLogger logger) {
+        return createInstance(localArtifactRepository, remoteProviders, mirrorPacked, 1, logger);
+    }
+
+    /**
+     * Creates a new {@link MirroringArtifactProvider} instance which downloads artifacts with the
+     * given number of threads in {@link #prefetchArtifacts(Collection)}.
+     * 
+     * @see #createInstance(LocalArtifactRepository, IRawArtifactProvider, boolean, MavenLogger)
+     */
+    public static MirroringArtifactProvider createInstance(LocalArtifactRepository localArtifactRepository,
+            IRawArtifactProvider remoteProviders, boolean mirrorPacked, int downloadThreads, MavenLogger logger) {
         if (!mirrorPacked) {
-            return new MirroringArtifactProvider(localArtifactRepository, remoteProviders, logger);
+            return new MirroringArtifactProvider(localArtifactRepository, remoteProviders, downloadThreads, logger);
         } else {
-            return new PackedFormatMirroringArtifactProvider(localArtifactRepository, remoteProviders, logger);
+            return new PackedFormatMirroringArtifactProvider(localArtifactRepository, remoteProviders,
+                    downloadThreads, logger);
         }
     }
 
     MirroringArtifactProvider(LocalArtifactRepository localArtifactRepository, IRawArtifactProvider remoteProviders,
-            MavenLogger logger) {
+            int downloadThreads, MavenLogger logger) {
         this.remoteProviders = remoteProviders;
         this.localArtifactRepository = localArtifactRepository;
+        this.downloadThreads = downloadThreads;
         this.logger = logger;
         this.splittingLogger = new MultiLineLogger(logger);
         this.monitor = new LoggingProgressMonitor(logger);
@@ -168,6 +205,66 @@ public class MirroringArtifactProvider implements IRawArtifactFileProvider {
         return false;
     }
 
+    /**
+     * Downloads the given artifacts from remote if they aren't available locally yet. If this
+     * instance is configured with more than one download thread, the downloads are done in
+     * parallel; otherwise this method does nothing and the artifacts are mirrored lazily on first
+     * access.
+     * 
+     * @throws MirroringFailedException
+     *             if a fatal error occurred while downloading one of the artifacts.
+     */
+    public final void prefetchArtifacts(Collection<IArtifactKey> keys) throws MirroringFailedException {
+        if (downloadThreads <= 1) {
+            return;
+        }
+        List<IArtifactKey> missingKeys = new ArrayList<>();
+        for (IArtifactKey key : new LinkedHashSet<>(keys)) {
+            if (!localArtifactRepository.contains(key)) {
+                missingKeys.add(key);
+            }
+        }
+        if (missingKeys.size() <= 1) {
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(downloadThreads, missingKeys.size()));
+        try {
+            List<Future<Boolean>> results = new ArrayList<>(missingKeys.size());
+            for (final IArtifactKey key : missingKeys) {
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        return makeLocallyAvailable(key);
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                waitForDownload(result);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void waitForDownload(Future<Boolean> result) throws MirroringFailedException {
+        try {
+            result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new MirroringFailedException("Error while mirroring artifacts to the local Maven repository", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MirroringFailedException("Interrupted while mirroring artifacts to the local Maven repository",
+                    e);
+        }
+    }
+
     /**
      * Downloads the artifact from remote if it isn't available locally yet.
      * 
@@ -178,6 +275,23 @@ public class MirroringArtifactProvider implements IRawArtifactFileProvider {
      */
     private boolean makeLocallyAvailable(IArtifactKey key) throws MirroringFailedException {
         // TODO 397355 cache artifactDescriptors for the key so that only one synchronization is necessary to figure out if a download is needed
+        Object lock = new Object();
+        synchronized (lock) {
+            Object otherLock;
+            while ((otherLock = mirroringLocks.putIfAbsent(key, lock)) != null) {
+                // wait until the other thread has finished mirroring; it removes its lock before releasing it
+                synchronized (otherLock) {
+                }
+            }
+            try {
+                return makeLocallyAvailableUnsynchronized(key);
+            } finally {
+                mirroringLocks.remove(key, lock);
+            }
+        }
+    }
+
+    private boolean makeLocallyAvailableUnsynchronized(IArtifactKey key) throws MirroringFailedException {
         try {
             boolean isAvailable = makeOneFormatLocallyAvailable(key);
 
@@ -239,8 +353,16 @@ public class MirroringArtifactProvider implements IRawArtifactFileProvider {
 
     protected final IStatus downloadCanonicalArtifact(IArtifactKey key) throws ProvisionException,
             ArtifactSinkException {
-        // TODO 397355 ignore ProvisionException.ARTIFACT_EXISTS - artifact may have been added by other thread in the meantime
-        IArtifactSink localSink = localArtifactRepository.newAddingArtifactSink(key);
+        IArtifactSink localSink;
+        try {
+            localSink = localArtifactRepository.newAddingArtifactSink(key);
+        } catch (ProvisionException e) {
+            if (isArtifactExistsError(e)) {
+                // artifact has been added by another thread in the meantime
+                return Status.OK_STATUS;
+            }
+            throw e;
+        }
         return remoteProviders.getArtifact(localSink, monitorForDownload());
     }
 
@@ -257,11 +379,23 @@ public class MirroringArtifactProvider implements IRawArtifactFileProvider {
             ArtifactSinkException {
         logger.info("Unpacking " + key.getId() + "_" + key.getVersion() + "...");
 
-        // TODO 397355 ignore ProvisionException.ARTIFACT_EXISTS
-        IArtifactSink sink = localArtifactRepository.newAddingArtifactSink(key);
+        IArtifactSink sink;
+        try {
+            sink = localArtifactRepository.newAddingArtifactSink(key);
+        } catch (ProvisionException e) {
+            if (isArtifactExistsError(e)) {
+                // canonical format has been created by another thread in the meantime
+                return;
+            }
+            throw e;
+        }
         localArtifactRepository.getArtifact(sink, monitor);
     }
 
+    static boolean isArtifactExistsError(ProvisionException e) {
+        return e.getStatus().getCode() == ProvisionException.ARTIFACT_EXISTS;
+    }
+
     static IArtifactDescriptor findPackedDescriptor(IArtifactDescriptor[] descriptors) {
         for (IArtifactDescriptor descriptor : descriptors) {
             if (ArtifactTransferPolicy.isPack200Format(descriptor)) {
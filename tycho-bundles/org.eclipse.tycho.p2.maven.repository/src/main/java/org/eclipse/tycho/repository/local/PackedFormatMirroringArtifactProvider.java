@@ -11,6 +11,7 @@
 package org.eclipse.tycho.repository.local;
 
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.equinox.p2.core.ProvisionException;
 import org.eclipse.equinox.p2.metadata.IArtifactKey;
 import org.eclipse.equinox.p2.repository.artifact.IArtifactDescriptor;
@@ -22,8 +23,8 @@ import org.eclipse.tycho.repository.p2base.artifact.provider.streaming.IRawArtif
 final class PackedFormatMirroringArtifactProvider extends MirroringArtifactProvider {
 
     PackedFormatMirroringArtifactProvider(LocalArtifactRepository localArtifactRepository,
-            IRawArtifactProvider remoteProviders, MavenLogger logger) {
-        super(localArtifactRepository, remoteProviders, logger);
+            IRawArtifactProvider remoteProviders, int downloadThreads, MavenLogger logger) {
+        super(localArtifactRepository, remoteProviders, downloadThreads, logger);
     }
 
     @Override
@@ -65,8 +66,16 @@ final class PackedFormatMirroringArtifactProvider extends MirroringArtifactProvi
 
     private final IStatus downloadRawArtifact(IArtifactDescriptor descriptor) throws ProvisionException,
             ArtifactSinkException {
-        // TODO 397355 ignore ProvisionException.ARTIFACT_EXISTS
-        IRawArtifactSink localSink = localArtifactRepository.newAddingRawArtifactSink(descriptor);
+        IRawArtifactSink localSink;
+        try {
+            localSink = localArtifactRepository.newAddingRawArtifactSink(descriptor);
+        } catch (ProvisionException e) {
+            if (isArtifactExistsError(e)) {
+                // artifact has been added by another thread in the meantime
+                return Status.OK_STATUS;
+            }
+            throw e;
+        }
         return remoteProviders.getRawArtifact(localSink, monitorForDownload());
     }
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2011 Sonatype Inc. and others.
+ * Copyright (c) 2008, 2015 Sonatype Inc. and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -96,6 +96,10 @@ public class FileBasedTychoRepositoryIndex extends DefaultTychoRepositoryIndex {
 
     @Override
     public void save() throws IOException {
+        if (addedGavs.isEmpty() && removedGavs.isEmpty()) {
+            // nothing to merge, so don't re-read and rewrite the index file under the lock
+            return;
+        }
         File parentDir = indexFile.getParentFile();
         if (!parentDir.isDirectory()) {
             parentDir.mkdirs();
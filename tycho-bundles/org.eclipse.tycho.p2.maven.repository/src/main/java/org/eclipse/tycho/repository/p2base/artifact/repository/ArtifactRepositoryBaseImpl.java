@@ -16,12 +16,12 @@ import static org.eclipse.tycho.repository.util.internal.BundleConstants.BUNDLE_
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -59,6 +59,12 @@ import org.eclipse.tycho.repository.p2base.artifact.provider.streaming.IRawArtif
  * {@link #getInternalDescriptorForAdding(IArtifactDescriptor)},
  * {@link #getComparableDescriptor(IArtifactDescriptor)}</li>
  * </ul>
+ * 
+ * <p>
+ * Access to the index is synchronized on the repository instance, so that artifacts can be read
+ * and added by several threads in parallel. Sub-classes accessing the {@link #descriptors} or
+ * {@link #descriptorsMap} members directly need to synchronize in the same way.
+ * </p>
  */
 @SuppressWarnings("restriction")
 public abstract class ArtifactRepositoryBaseImpl<ArtifactDescriptorT extends IArtifactDescriptor> extends
@@ -100,17 +106,20 @@ public abstract class ArtifactRepositoryBaseImpl<ArtifactDescriptorT extends IAr
     protected abstract IArtifactDescriptor getComparableDescriptor(IArtifactDescriptor descriptor);
 
     @Override
-    public final boolean contains(IArtifactKey key) {
+    public final synchronized boolean contains(IArtifactKey key) {
         return descriptorsMap.containsKey(key);
     }
 
     @Override
     public final boolean contains(IArtifactDescriptor descriptor) {
-        return descriptors.contains(getComparableDescriptor(descriptor));
+        IArtifactDescriptor comparableDescriptor = getComparableDescriptor(descriptor);
+        synchronized (this) {
+            return descriptors.contains(comparableDescriptor);
+        }
     }
 
     @Override
-    public final IArtifactDescriptor[] getArtifactDescriptors(IArtifactKey key) {
+    public final synchronized IArtifactDescriptor[] getArtifactDescriptors(IArtifactKey key) {
         Set<ArtifactDescriptorT> descriptors = descriptorsMap.get(key);
         if (descriptors == null) {
             return EMPTY_DESCRIPTOR_ARRAY;
@@ -120,18 +129,26 @@ public abstract class ArtifactRepositoryBaseImpl<ArtifactDescriptorT extends IAr
 
     @Override
     public final IQueryResult<IArtifactKey> query(IQuery<IArtifactKey> query, IProgressMonitor monitor) {
-        // TODO 397355 copy collection for thread-safety
-        return query.perform(descriptorsMap.keySet().iterator());
+        List<IArtifactKey> keys;
+        synchronized (this) {
+            // copy collection for thread-safety
+            keys = new ArrayList<>(descriptorsMap.keySet());
+        }
+        return query.perform(keys.iterator());
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public final IQueryable<IArtifactDescriptor> descriptorQueryable() {
-        // TODO 397355 copy collection for thread-safety
         return new IQueryable<IArtifactDescriptor>() {
             @Override
             public IQueryResult<IArtifactDescriptor> query(IQuery<IArtifactDescriptor> query, IProgressMonitor monitor) {
-                return query.perform((Iterator<IArtifactDescriptor>) descriptors.iterator());
+                List<ArtifactDescriptorT> descriptorsCopy;
+                synchronized (ArtifactRepositoryBaseImpl.this) {
+                    // copy collection for thread-safety
+                    descriptorsCopy = new ArrayList<>(descriptors);
+                }
+                return query.perform((Iterator<IArtifactDescriptor>) descriptorsCopy.iterator());
             }
         };
     }
@@ -162,7 +179,7 @@ public abstract class ArtifactRepositoryBaseImpl<ArtifactDescriptorT extends IAr
         internalAddInternalDescriptor(getInternalDescriptorForAdding(descriptor));
     }
 
-    protected final void internalAddInternalDescriptor(ArtifactDescriptorT internalDescriptor) {
+    protected final synchronized void internalAddInternalDescriptor(ArtifactDescriptorT internalDescriptor) {
         descriptors.add(internalDescriptor);
 
         Set<ArtifactDescriptorT> descriptorsForKey = initDescriptorsMapEntry(internalDescriptor.getArtifactKey());
@@ -180,7 +197,7 @@ public abstract class ArtifactRepositoryBaseImpl<ArtifactDescriptorT extends IAr
     }
 
     @Override
-    protected final void internalRemoveDescriptor(IArtifactDescriptor descriptor) {
+    protected final synchronized void internalRemoveDescriptor(IArtifactDescriptor descriptor) {
         IArtifactDescriptor comparableDescriptor = getComparableDescriptor(descriptor);
         descriptors.remove(comparableDescriptor);
 
@@ -196,14 +213,14 @@ public abstract class ArtifactRepositoryBaseImpl<ArtifactDescriptorT extends IAr
     }
 
     @Override
-    protected final void internalRemoveDescriptors(IArtifactDescriptor[] descriptors) {
+    protected final synchronized void internalRemoveDescriptors(IArtifactDescriptor[] descriptors) {
         for (IArtifactDescriptor descriptor : descriptors) {
             internalRemoveDescriptor(descriptor);
         }
     }
 
     @Override
-    protected final void internalRemoveDescriptors(IArtifactKey key) {
+    protected final synchronized void internalRemoveDescriptors(IArtifactKey key) {
         Set<ArtifactDescriptorT> descriptorsForKey = descriptorsMap.remove(key);
         if (descriptorsForKey != null) {
             for (ArtifactDescriptorT descriptor : descriptorsForKey) {
@@ -213,14 +230,14 @@ public abstract class ArtifactRepositoryBaseImpl<ArtifactDescriptorT extends IAr
     }
 
     @Override
-    protected final void internalRemoveDescriptors(IArtifactKey[] keys) {
+    protected final synchronized void internalRemoveDescriptors(IArtifactKey[] keys) {
         for (IArtifactKey key : keys) {
             internalRemoveDescriptors(key);
         }
     }
 
     @Override
-    protected final void internalRemoveAllDescriptors() {
+    protected final synchronized void internalRemoveAllDescriptors() {
         descriptors.clear();
         descriptorsMap.clear();
     }
@@ -259,7 +276,7 @@ public abstract class ArtifactRepositoryBaseImpl<ArtifactDescriptorT extends IAr
     }
 
     @Override
-    public final File getArtifactFile(IArtifactKey key) {
+    public final synchronized File getArtifactFile(IArtifactKey key) {
         Set<ArtifactDescriptorT> descriptors = descriptorsMap.get(key);
 
         // if available, return location of canonical format of the artifact
@@ -413,6 +430,7 @@ public abstract class ArtifactRepositoryBaseImpl<ArtifactDescriptorT extends IAr
     private class AddingArtifactSink implements IArtifactSink {
         protected final ArtifactDescriptorT newDescriptor;
         private OutputStream currentOutputStream = null;
+        private File currentTempFile = null;
         private boolean committed = false;
 
         AddingArtifactSink(ArtifactDescriptorT newDescriptor) throws ProvisionException {
@@ -445,13 +463,14 @@ public abstract class ArtifactRepositoryBaseImpl<ArtifactDescriptorT extends IAr
                 abortWrite();
             }
 
-            // TODO 397355 use a temporary file location in case multiple threads/processes write in parallel
+            // write to a temporary file location in case multiple threads/processes write in parallel
             File artifactFile = internalGetArtifactStorageLocation(newDescriptor);
             artifactFile.getParentFile().mkdirs();
 
             try {
-                currentOutputStream = new FileOutputStream(artifactFile);
-            } catch (FileNotFoundException e) {
+                currentTempFile = File.createTempFile(artifactFile.getName(), ".tmp", artifactFile.getParentFile());
+                currentOutputStream = new FileOutputStream(currentTempFile);
+            } catch (IOException e) {
                 throw new ArtifactSinkException("I/O error while creating artifact file " + artifactFile, e);
             }
             return currentOutputStream;
@@ -462,16 +481,37 @@ public abstract class ArtifactRepositoryBaseImpl<ArtifactDescriptorT extends IAr
             if (currentOutputStream == null) {
                 throw new IllegalStateException("Write operation has not yet been started. Cannot add artifact.");
             }
+            File tempFile = currentTempFile;
             try {
                 currentOutputStream.close();
             } catch (IOException e) {
+                tempFile.delete();
                 throw new ArtifactSinkException("I/O error while closing artifact file", e);
             } finally {
                 currentOutputStream = null;
+                currentTempFile = null;
             }
 
-            internalAddInternalDescriptor(newDescriptor);
-            internalStore(null);
+            synchronized (ArtifactRepositoryBaseImpl.this) {
+                if (contains(newDescriptor)) {
+                    // artifact has been added by another thread in the meantime
+                    tempFile.delete();
+                } else {
+                    moveToStorageLocation(tempFile);
+                    internalAddInternalDescriptor(newDescriptor);
+                    internalStore(null);
+                }
+            }
+        }
+
+        private void moveToStorageLocation(File tempFile) throws ArtifactSinkException {
+            File artifactFile = internalGetArtifactStorageLocation(newDescriptor);
+            // the target may exist if it isn't in the index, e.g. after an interrupted build
+            artifactFile.delete();
+            if (!tempFile.renameTo(artifactFile)) {
+                tempFile.delete();
+                throw new ArtifactSinkException("I/O error while moving artifact to " + artifactFile);
+            }
         }
 
         @Override
@@ -485,6 +525,8 @@ public abstract class ArtifactRepositoryBaseImpl<ArtifactDescriptorT extends IAr
                 throw new ArtifactSinkException("I/O error while closing artifact file", e);
             } finally {
                 currentOutputStream = null;
+                currentTempFile.delete();
+                currentTempFile = null;
             }
         }
     }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2012 IBM Corporation and others.
+ * Copyright (c) 2008, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,7 +14,10 @@ package org.eclipse.tycho.repository.p2base.metadata;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 import org.eclipse.equinox.internal.p2.metadata.InstallableUnit;
 import org.eclipse.equinox.internal.p2.metadata.TranslationSupport;
@@ -23,12 +26,24 @@ import org.eclipse.equinox.internal.p2.metadata.index.IdIndex;
 import org.eclipse.equinox.internal.p2.metadata.index.IndexProvider;
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
 import org.eclipse.equinox.p2.metadata.KeyWithLocale;
+import org.eclipse.equinox.p2.metadata.expression.IEvaluationContext;
+import org.eclipse.equinox.p2.metadata.expression.IExpression;
 import org.eclipse.equinox.p2.metadata.index.IIndex;
 
 // This class was copied from org.eclipse.equinox.internal.p2.director.QueryableArray
 @SuppressWarnings("restriction")
 public class QueryableCollection extends IndexProvider<IInstallableUnit> {
-    private final Collection<IInstallableUnit> dataSet;
+
+    /**
+     * Number of added units which are kept outside of the indices. Beyond this number, the indices
+     * are re-created on the next indexed query.
+     */
+    private static final int MAX_UNINDEXED_UNITS = 1000;
+
+    // the lists are replaced instead of modified so that iterations are not affected by additions
+    private List<IInstallableUnit> dataSet;
+    private List<IInstallableUnit> unindexedUnits = Collections.emptyList();
+
     private IIndex<IInstallableUnit> capabilityIndex;
     private IIndex<IInstallableUnit> idIndex;
     private TranslationSupport translationSupport;
@@ -37,9 +52,34 @@ public class QueryableCollection extends IndexProvider<IInstallableUnit> {
         dataSet = new ArrayList<>(ius);
     }
 
+    /**
+     * Adds units to the collection. The units are added to the existing indices, so that the
+     * indices don't need to be re-created if a few units are added between queries.
+     */
+    public synchronized void addAll(Collection<IInstallableUnit> ius) {
+        List<IInstallableUnit> newUnindexedUnits = new ArrayList<>(unindexedUnits.size() + ius.size());
+        newUnindexedUnits.addAll(unindexedUnits);
+        newUnindexedUnits.addAll(ius);
+
+        if (newUnindexedUnits.size() > MAX_UNINDEXED_UNITS) {
+            List<IInstallableUnit> newDataSet = new ArrayList<>(dataSet.size() + newUnindexedUnits.size());
+            newDataSet.addAll(dataSet);
+            newDataSet.addAll(newUnindexedUnits);
+            dataSet = newDataSet;
+            unindexedUnits = Collections.emptyList();
+            capabilityIndex = null;
+            idIndex = null;
+        } else {
+            unindexedUnits = newUnindexedUnits;
+        }
+    }
+
     @Override
-    public Iterator<IInstallableUnit> everything() {
-        return dataSet.iterator();
+    public synchronized Iterator<IInstallableUnit> everything() {
+        if (unindexedUnits.isEmpty()) {
+            return dataSet.iterator();
+        }
+        return new ConcatenatedIterator(dataSet.iterator(), unindexedUnits.iterator());
     }
 
     @Override
@@ -47,16 +87,36 @@ public class QueryableCollection extends IndexProvider<IInstallableUnit> {
         if (InstallableUnit.MEMBER_PROVIDED_CAPABILITIES.equals(memberName)) {
             if (capabilityIndex == null)
                 capabilityIndex = new CapabilityIndex(dataSet.iterator());
-            return capabilityIndex;
+            return withUnindexedUnits(capabilityIndex);
         }
         if (InstallableUnit.MEMBER_ID.equals(memberName)) {
             if (idIndex == null)
                 idIndex = new IdIndex(dataSet.iterator());
-            return idIndex;
+            return withUnindexedUnits(idIndex);
         }
         return null;
     }
 
+    private IIndex<IInstallableUnit> withUnindexedUnits(final IIndex<IInstallableUnit> index) {
+        if (unindexedUnits.isEmpty()) {
+            return index;
+        }
+        final List<IInstallableUnit> unindexedUnitsSnapshot = unindexedUnits;
+        return new IIndex<IInstallableUnit>() {
+            @Override
+            public Iterator<IInstallableUnit> getCandidates(IEvaluationContext ctx, IExpression variable,
+                    IExpression booleanExpr) {
+                Iterator<IInstallableUnit> indexedCandidates = index.getCandidates(ctx, variable, booleanExpr);
+                if (indexedCandidates == null) {
+                    // index not applicable for the expression
+                    return null;
+                }
+                // the candidates are matched against the expression by the caller
+                return new ConcatenatedIterator(indexedCandidates, unindexedUnitsSnapshot.iterator());
+            }
+        };
+    }
+
     @Override
     public synchronized Object getManagedProperty(Object client, String memberName, Object key) {
         if (!(client instanceof IInstallableUnit))
@@ -70,4 +130,34 @@ public class QueryableCollection extends IndexProvider<IInstallableUnit> {
         }
         return null;
     }
+
+    private static class ConcatenatedIterator implements Iterator<IInstallableUnit> {
+        private final Iterator<IInstallableUnit> first;
+        private final Iterator<IInstallableUnit> second;
+
+        ConcatenatedIterator(Iterator<IInstallableUnit> first, Iterator<IInstallableUnit> second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return first.hasNext() || second.hasNext();
+        }
+
+        @Override
+        public IInstallableUnit next() {
+            if (first.hasNext()) {
+                return first.next();
+            } else if (second.hasNext()) {
+                return second.next();
+            }
+            throw new NoSuchElementException();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
 }
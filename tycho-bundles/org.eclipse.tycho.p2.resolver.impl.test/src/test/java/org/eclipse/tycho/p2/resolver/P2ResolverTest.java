@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2014 Sonatype Inc. and others.
+ * Copyright (c) 2008, 2015 Sonatype Inc. and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -415,6 +415,18 @@ public class P2ResolverTest extends P2ResolverTestBase {
         //assertThat(getClassifiedArtifact(result, "p2inf").getType(), is(ArtifactType.TYPE_ECLIPSE_PLUGIN));
     }
 
+    @Test
+    public void testResolveWithoutEnvironments() throws Exception {
+        impl.setEnvironments(Collections.<TargetEnvironment> emptyList());
+        tpConfig.addP2Repository(resourceFile("repositories/e342").toURI());
+        projectToResolve = createReactorProject(resourceFile("resolver/bundle01"), TYPE_ECLIPSE_PLUGIN,
+                "org.eclipse.tycho.p2.impl.resolver.test.bundle01");
+
+        List<P2ResolutionResult> results = impl.resolveDependencies(getTargetPlatform(), projectToResolve);
+
+        assertEquals(0, results.size());
+    }
+
     @Test
     public void testFeatureMultienvP2Inf() throws Exception {
         List<TargetEnvironment> environments = new ArrayList<>();
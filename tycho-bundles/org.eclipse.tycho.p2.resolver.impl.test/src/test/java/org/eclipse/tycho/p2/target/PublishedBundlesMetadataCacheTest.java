@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2015 SAP SE and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    SAP SE - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.tycho.p2.target;
+
+import static org.eclipse.tycho.p2.testutil.InstallableUnitUtil.createBundleIU;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.equinox.internal.p2.metadata.ArtifactKey;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactDescriptor;
+import org.eclipse.equinox.p2.repository.artifact.spi.ArtifactDescriptor;
+import org.eclipse.tycho.p2.impl.test.ArtifactMock;
+import org.eclipse.tycho.p2.metadata.IArtifactFacade;
+import org.eclipse.tycho.test.util.LogVerifier;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PublishedBundlesMetadataCacheTest {
+
+    private static final String GROUP_ID = "example.group";
+    private static final String ARTIFACT_ID = "example.artifact";
+    private static final String VERSION = "0.8.15-SNAPSHOT";
+
+    @Rule
+    public final LogVerifier logVerifier = new LogVerifier();
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+    private File localRepositoryRoot;
+
+    private File artifactFile;
+    private IArtifactFacade artifact;
+
+    // a unit which differs from what the publisher would generate, so that it can only come from the cache
+    private IInstallableUnit cachedUnit;
+    private IArtifactDescriptor cachedDescriptor;
+
+    @Before
+    public void initCache() throws Exception {
+        logVerifier.expectNoWarnings();
+        PublishedBundlesMetadataCache.clearMemoryCache();
+
+        localRepositoryRoot = tempFolder.newFolder("repository");
+        artifactFile = tempFolder.newFile("artifact.jar");
+        FileUtils.writeStringToFile(artifactFile, "content");
+        artifact = new ArtifactMock(artifactFile, GROUP_ID, ARTIFACT_ID, VERSION, "jar");
+
+        cachedUnit = createBundleIU("cached.bundle", "1.0.0");
+        cachedDescriptor = new ArtifactDescriptor(new ArtifactKey("osgi.bundle", "cached.bundle",
+                Version.parseVersion("1.0.0")));
+    }
+
+    @Test
+    public void testEntryIsReadFromDiskInSubsequentBuild() {
+        newCache().put(artifact, cachedUnit, cachedDescriptor);
+        PublishedBundlesMetadataCache.clearMemoryCache();
+
+        PublishedBundlesMetadataCache.Entry entry = newCache().get(artifact);
+
+        assertNotNull(entry);
+        assertThat(entry.unit, is(cachedUnit));
+        assertThat(entry.descriptor.getArtifactKey(), is(cachedDescriptor.getArtifactKey()));
+    }
+
+    @Test
+    public void testEntryOfNonBundleIsReadFromDiskInSubsequentBuild() {
+        newCache().put(artifact, null, null);
+        PublishedBundlesMetadataCache.clearMemoryCache();
+
+        PublishedBundlesMetadataCache.Entry entry = newCache().get(artifact);
+
+        assertNotNull(entry);
+        assertNull(entry.unit);
+    }
+
+    @Test
+    public void testEntryIsInvalidatedByChangedSize() throws Exception {
+        newCache().put(artifact, cachedUnit, cachedDescriptor);
+        PublishedBundlesMetadataCache.clearMemoryCache();
+
+        long lastModified = artifactFile.lastModified();
+        FileUtils.writeStringToFile(artifactFile, "changed content");
+        artifactFile.setLastModified(lastModified);
+
+        assertNull(newCache().get(artifact));
+    }
+
+    @Test
+    public void testEntryIsInvalidatedByChangedModificationTime() throws Exception {
+        newCache().put(artifact, cachedUnit, cachedDescriptor);
+        PublishedBundlesMetadataCache.clearMemoryCache();
+
+        artifactFile.setLastModified(artifactFile.lastModified() - 10000L);
+
+        assertNull(newCache().get(artifact));
+    }
+
+    private PublishedBundlesMetadataCache newCache() {
+        return new PublishedBundlesMetadataCache(localRepositoryRoot, logVerifier.getLogger());
+    }
+
+}
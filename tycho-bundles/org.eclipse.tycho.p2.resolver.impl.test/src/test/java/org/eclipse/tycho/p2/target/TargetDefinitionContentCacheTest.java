@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2015 SAP SE and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    SAP SE - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.tycho.p2.target;
+
+import static org.eclipse.tycho.p2.target.ExecutionEnvironmentTestUtils.NOOP_EE_RESOLUTION_HINTS;
+import static org.eclipse.tycho.p2.target.TargetDefinitionResolverTest.MAIN_BUNDLE;
+import static org.eclipse.tycho.p2.target.TargetDefinitionResolverTest.REFERENCED_BUNDLE_V1;
+import static org.eclipse.tycho.p2.target.TargetDefinitionResolverTest.bagEquals;
+import static org.eclipse.tycho.p2.target.TargetDefinitionResolverTest.defaultEnvironments;
+import static org.eclipse.tycho.p2.target.TargetDefinitionResolverTest.definitionWith;
+import static org.eclipse.tycho.p2.target.TargetDefinitionResolverTest.versionedIdList;
+import static org.eclipse.tycho.p2.target.TargetDefinitionResolverTest.versionedIdsOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.metadata.VersionedId;
+import org.eclipse.tycho.core.shared.TargetEnvironment;
+import org.eclipse.tycho.p2.target.TargetDefinitionResolverTest.LocationStub;
+import org.eclipse.tycho.p2.target.facade.TargetDefinition;
+import org.eclipse.tycho.p2.testutil.InstallableUnitUtil;
+import org.eclipse.tycho.test.util.LogVerifier;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TargetDefinitionContentCacheTest {
+
+    @Rule
+    public final TemporaryFolder tempManager = new TemporaryFolder();
+    @Rule
+    public final LogVerifier logVerifier = new LogVerifier();
+
+    private TargetDefinitionContentCache subject;
+
+    @Before
+    public void initSubject() throws Exception {
+        subject = new TargetDefinitionContentCache(tempManager.newFolder("localrepo"), logVerifier.getLogger());
+    }
+
+    @Test
+    public void testSameKeyForSameArguments() {
+        String key1 = subject.computeKey(definitionWith(new LocationStub(MAIN_BUNDLE)), defaultEnvironments(),
+                NOOP_EE_RESOLUTION_HINTS);
+        String key2 = subject.computeKey(definitionWith(new LocationStub(MAIN_BUNDLE)), defaultEnvironments(),
+                NOOP_EE_RESOLUTION_HINTS);
+
+        assertThat(key1, is(notNullValue()));
+        assertThat(key1, is(key2));
+    }
+
+    @Test
+    public void testDifferentKeyForDifferentArguments() {
+        TargetDefinition definition = definitionWith(new LocationStub(MAIN_BUNDLE));
+        String key = subject.computeKey(definition, defaultEnvironments(), NOOP_EE_RESOLUTION_HINTS);
+
+        assertThat(subject.computeKey(definitionWith(new LocationStub(REFERENCED_BUNDLE_V1)), defaultEnvironments(),
+                NOOP_EE_RESOLUTION_HINTS), is(not(key)));
+        assertThat(subject.computeKey(definition,
+                Collections.singletonList(new TargetEnvironment("linux", "gtk", "x86_64")), NOOP_EE_RESOLUTION_HINTS),
+                is(not(key)));
+    }
+
+    @Test
+    public void testNoKeyForUnitWithWildcardVersion() {
+        TargetDefinition definition = definitionWith(new LocationStub(new VersionedId("trt.bundle", "0.0.0")));
+
+        assertThat(subject.computeKey(definition, defaultEnvironments(), NOOP_EE_RESOLUTION_HINTS), is(nullValue()));
+    }
+
+    @Test
+    public void testReadMissingEntry() {
+        assertThat(subject.read("0123456789abcdef"), is(nullValue()));
+    }
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        IInstallableUnit unit1 = InstallableUnitUtil.createIU(MAIN_BUNDLE.getId(), MAIN_BUNDLE.getVersion().toString());
+        IInstallableUnit unit2 = InstallableUnitUtil.createIU(REFERENCED_BUNDLE_V1.getId(), REFERENCED_BUNDLE_V1
+                .getVersion().toString());
+        URI repository = new URI("http://example.org/repository");
+        String key = subject.computeKey(definitionWith(new LocationStub(MAIN_BUNDLE)), defaultEnvironments(),
+                NOOP_EE_RESOLUTION_HINTS);
+
+        subject.write(key, new TargetDefinitionContent(Arrays.asList(unit1, unit2), Arrays.asList(repository)));
+        TargetDefinitionContent result = subject.read(key);
+
+        assertThat(versionedIdsOf(result), bagEquals(versionedIdList(MAIN_BUNDLE, REFERENCED_BUNDLE_V1)));
+        assertThat(result.getArtifactRepositoryLocations(), bagEquals(Arrays.asList(repository)));
+    }
+}
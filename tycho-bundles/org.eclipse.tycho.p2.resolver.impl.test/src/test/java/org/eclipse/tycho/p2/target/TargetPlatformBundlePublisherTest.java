@@ -90,6 +90,28 @@ public class TargetPlatformBundlePublisherTest {
         assertThat(artifactMD5Of(referencedArtifact, artifactRepo), is("6303323acc98658c0fed307c84db4411"));
     }
 
+    @Test
+    public void testPomDependencyOnBundleFromCache() throws Exception {
+        FileUtils.copyDirectory(resourceFile("platformbuilder/pom-dependencies/bundle-repo"), localRepositoryRoot);
+        File bundleFile = new File(localRepositoryRoot, RepositoryLayoutHelper.getRelativePath(GROUP_ID, ARTIFACT_ID,
+                VERSION, null, "jar"));
+        IArtifactFacade bundleArtifact = new ArtifactMock(bundleFile, GROUP_ID, ARTIFACT_ID, VERSION, "jar");
+        IInstallableUnit originalUnit = subject.attemptToPublishBundle(bundleArtifact);
+
+        // new instance in a subsequent build
+        PublishedBundlesMetadataCache.clearMemoryCache();
+        subject = new TargetPlatformBundlePublisher(localRepositoryRoot, logVerifier.getLogger());
+        IInstallableUnit cachedUnit = subject.attemptToPublishBundle(bundleArtifact);
+
+        assertThat(cachedUnit, is(originalUnit));
+        assertThat(cachedUnit.getProperties(), containsGAV(GROUP_ID, ARTIFACT_ID, VERSION));
+
+        IArtifactKey referencedArtifact = cachedUnit.getArtifacts().iterator().next();
+        IRawArtifactProvider artifactRepo = subject.getArtifactRepoOfPublishedBundles();
+        assertThat(artifactRepo, contains(referencedArtifact));
+        assertThat(artifactMD5Of(referencedArtifact, artifactRepo), is("6303323acc98658c0fed307c84db4411"));
+    }
+
     @Test
     public void testPomDependencyOnPlainJar() throws Exception {
         File jarFile = resourceFile("platformbuilder/pom-dependencies/non-bundle.jar");
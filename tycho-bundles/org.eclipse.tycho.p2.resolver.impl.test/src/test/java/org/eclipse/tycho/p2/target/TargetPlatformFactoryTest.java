@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2014 SAP SE and others.
+ * Copyright (c) 2008, 2015 SAP SE and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,6 +20,7 @@ import static org.eclipse.tycho.p2.testutil.InstallableUnitMatchers.unitWithIdAn
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 
 import java.io.File;
@@ -104,6 +105,16 @@ public class TargetPlatformFactoryTest {
         assertThat(finalTP.getInstallableUnits(), hasItem(unitWithId("org.eclipse.equinox.launcher")));
     }
 
+    @Test
+    public void testTargetPlatformContainsIUsOfAllExternalRepos() throws Exception {
+        tpConfig.addP2Repository(ResourceUtil.resourceFile("repositories/launchers").toURI());
+        tpConfig.addP2Repository(ResourceUtil.resourceFile("repositories/javax.xml").toURI());
+        P2TargetPlatform preliminaryTP = subject.createTargetPlatform(tpConfig, NOOP_EE_RESOLUTION_HANDLER, null, null);
+
+        assertThat(preliminaryTP.getInstallableUnits(), hasItem(unitWithId("org.eclipse.equinox.launcher")));
+        assertThat(preliminaryTP.getInstallableUnits(), hasItem(unitWithId("javax.xml")));
+    }
+
     @Test
     public void testFinalTargetPlatformContainsTargetFileIU() {
         tpConfig.addTargetDefinition(targetDefinition(TestRepositories.V1_AND_V2, MAIN_BUNDLE));
@@ -227,6 +238,24 @@ public class TargetPlatformFactoryTest {
         assertThat(finalTP.getInstallableUnits(), not(hasItem(unit("trt.bundle", "1.0.0.201108051343"))));
     }
 
+    @Test
+    public void testContentOfIdenticalConfigurationIsSharedButFilteredPerProject() throws Exception {
+        tpConfig.addP2Repository(ResourceUtil.resourceFile("targetresolver/v1_content").toURI());
+        TargetPlatformFilter filter = TargetPlatformFilter.removeAllFilter(CapabilityPattern.patternWithoutVersion(
+                CapabilityType.P2_INSTALLABLE_UNIT, "iu.p2.inf"));
+        tpConfig.addFilters(Arrays.asList(filter));
+
+        PreliminaryTargetPlatformImpl firstTP = (PreliminaryTargetPlatformImpl) subject.createTargetPlatform(tpConfig,
+                NOOP_EE_RESOLUTION_HANDLER, null, null);
+        ReactorProject reactorProject = createReactorProject("artifactId", "trt.bundle/1.5.5.qualifier", null);
+        PreliminaryTargetPlatformImpl secondTP = (PreliminaryTargetPlatformImpl) subject.createTargetPlatform(
+                tpConfig, NOOP_EE_RESOLUTION_HANDLER, Collections.singletonList(reactorProject), null);
+
+        assertSame(firstTP.getFilter(), secondTP.getFilter());
+        assertThat(firstTP.getInstallableUnits(), hasItem(unit("trt.bundle", "1.0.0.201108051343")));
+        assertThat(secondTP.getInstallableUnits(), not(hasItem(unit("trt.bundle", "1.0.0.201108051343"))));
+    }
+
     @Test
     public void testIncludeLocalMavenRepo() throws Exception {
         TestResolverFactory factory = new TestResolverFactory(logVerifier.getLogger());
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014 SAP SE and others.
+ * Copyright (c) 2014, 2015 SAP SE and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,16 +16,21 @@ import static org.eclipse.tycho.p2.testutil.InstallableUnitUtil.createProductIU;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.isA;
 import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 
 import java.util.Arrays;
 import java.util.LinkedHashSet;
 
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.equinox.p2.query.IQueryable;
+import org.eclipse.equinox.p2.query.QueryUtil;
 import org.eclipse.tycho.ArtifactKey;
 import org.eclipse.tycho.ArtifactType;
 import org.eclipse.tycho.artifacts.IllegalArtifactReferenceException;
 import org.eclipse.tycho.artifacts.TargetPlatform;
+import org.eclipse.tycho.p2.target.ee.StandardEEResolutionHints;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -169,6 +174,20 @@ public class TargetPlatformTest {
         subject.resolveArtifact("invalid-type", "unit", ANY_VERSION);
     }
 
+    @Test
+    public void testUnitsForResolutionAreCreatedOnce() throws Exception {
+        FinalTargetPlatformImpl targetPlatform = new FinalTargetPlatformImpl(candidateIUs,
+                new StandardEEResolutionHints("J2SE-1.4"), null, null, null, null);
+
+        IQueryable<IInstallableUnit> units = targetPlatform.getInstallableUnitsForResolution();
+
+        assertSame(units, targetPlatform.getInstallableUnitsForResolution());
+        assertThat(units.query(QueryUtil.createIUQuery("some.bundle", Version.parseVersion("1.2.0")), null)
+                .isEmpty(), is(false));
+        // the execution environment units are added for the resolution
+        assertThat(units.query(QueryUtil.createIUQuery("a.jre.j2se"), null).isEmpty(), is(false));
+    }
+
     private FinalTargetPlatformImpl createTP() {
         return new FinalTargetPlatformImpl(candidateIUs, null, null, null, null, null);
     }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2013 SAP SE and others.
+ * Copyright (c) 2012, 2015 SAP SE and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -36,6 +36,7 @@ public class TestResolverFactory implements P2ResolverFactory {
     private TargetDefinitionResolverService targetDefinitionResolverService;
     private LocalMetadataRepository localMetadataRepo;
     private LocalArtifactRepository localArtifactRepo;
+    private final TargetPlatformContentCache targetPlatformContentCache = new TargetPlatformContentCache();
 
     public TestResolverFactory(MavenLogger logger) {
         boolean offline = false;
@@ -89,7 +90,7 @@ public class TestResolverFactory implements P2ResolverFactory {
     public TargetPlatformFactoryImpl getTargetPlatformFactoryImpl() {
         try {
             return new TargetPlatformFactoryImpl(mavenContext, new RemoteAgent(mavenContext), localArtifactRepo,
-                    localMetadataRepo, targetDefinitionResolverService);
+                    localMetadataRepo, targetDefinitionResolverService, targetPlatformContentCache);
         } catch (ProvisionException e) {
             throw new RuntimeException(e);
         }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2013 SAP SE and others.
+ * Copyright (c) 2011, 2015 SAP SE and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,6 +21,7 @@ import static org.hamcrest.CoreMatchers.hasItem;
 import static org.junit.Assert.assertThat;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -203,6 +204,26 @@ public class TargetPlatformFilterEvaluatorTest {
                 .expectWarning(allOf(containsString("Removed all units"), containsString("trf.bundle.multiversion")));
     }
 
+    @Test
+    public void testMultipleFilters() throws Exception {
+        List<TargetPlatformFilter> filters = Arrays.asList(
+                removeAllFilter(patternWithVersion(CapabilityType.OSGI_BUNDLE, "trf.bundle.multiversion", "1.0.0")),
+                removeAllFilter(patternWithoutVersion(CapabilityType.P2_INSTALLABLE_UNIT, "main.product.id")),
+                restrictionFilter(ALL_MULTIVERSION_BUNDLES, patternWithVersion(null, null, "1.0.0")));
+        subject = newEvaluator(filters);
+
+        subject.filterUnits(workUnits);
+
+        assertThat(removedUnits(), hasItem("trf.bundle.multiversion_1.0.0"));
+        assertThat(removedUnits(), hasItem("trf.bundle.multiversion_2.0.0"));
+        assertThat(removedUnits(), hasItem("main.product.id_0.0.1.201112271438"));
+        assertThat(removedUnits(), hasSize(3));
+
+        // the restriction is only evaluated on the units which have not been removed by the preceding filters
+        logVerifier
+                .expectWarning(allOf(containsString("Removed all units"), containsString("trf.bundle.multiversion")));
+    }
+
     @Test(expected = TargetPlatformFilterSyntaxException.class)
     public void testNonParsableVersion() throws Exception {
         TargetPlatformFilter invalidFilter = restrictionFilter(ALL_MULTIVERSION_BUNDLES,
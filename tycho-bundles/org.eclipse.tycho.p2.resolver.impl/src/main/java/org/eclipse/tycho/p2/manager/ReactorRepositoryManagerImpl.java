@@ -44,14 +44,14 @@ public class ReactorRepositoryManagerImpl implements ReactorRepositoryManager {
     private File agentDir;
     private IProvisioningAgent agent;
 
-    private TargetPlatformFactory tpFactory;
+    private P2ResolverFactory p2ResolverFactory;
 
     public void bindProvisioningAgentFactory(IProvisioningAgentProvider agentFactory) {
         this.agentFactory = agentFactory;
     }
 
     public void bindP2ResolverFactory(P2ResolverFactory p2ResolverFactory) {
-        tpFactory = p2ResolverFactory.getTargetPlatformFactory();
+        this.p2ResolverFactory = p2ResolverFactory;
     }
 
     public void activateManager() throws IOException, ProvisionException {
@@ -81,7 +81,7 @@ public class ReactorRepositoryManagerImpl implements ReactorRepositoryManager {
             TargetPlatformConfigurationStub tpConfiguration, ExecutionEnvironmentConfiguration eeConfiguration,
             List<ReactorProject> reactorProjects, PomDependencyCollector pomDependencies) {
         // at this point, there is only incomplete ("dependency-only") metadata for the reactor projects
-        TargetPlatform result = tpFactory.createTargetPlatform(tpConfiguration, eeConfiguration, reactorProjects,
+        TargetPlatform result = newTargetPlatformFactory().createTargetPlatform(tpConfiguration, eeConfiguration, reactorProjects,
                 pomDependencies);
         project.setContextValue(PRELIMINARY_TARGET_PLATFORM_KEY, result);
         return result;
@@ -97,12 +97,17 @@ public class ReactorRepositoryManagerImpl implements ReactorRepositoryManager {
         }
 
         List<PublishingRepository> upstreamProjectResults = getBuildResults(upstreamProjects);
-        P2TargetPlatform result = ((TargetPlatformFactoryImpl) tpFactory)
+        P2TargetPlatform result = ((TargetPlatformFactoryImpl) newTargetPlatformFactory())
                 .createTargetPlatformWithUpdatedReactorContent(preliminaryTargetPlatform, upstreamProjectResults);
 
         project.setContextValue(FINAL_TARGET_PLATFORM_KEY, result);
     }
 
+    private TargetPlatformFactory newTargetPlatformFactory() {
+        // factory instances are not thread-safe -> use one instance per call so that projects can be resolved in parallel
+        return p2ResolverFactory.getTargetPlatformFactory();
+    }
+
     private PreliminaryTargetPlatformImpl getRegisteredPreliminaryTargetPlatform(ReactorProject project) {
         Object result = project.getContextValue(PRELIMINARY_TARGET_PLATFORM_KEY);
         if (result instanceof PreliminaryTargetPlatformImpl) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 Sonatype Inc. and others.
+ * Copyright (c) 2008, 2015 Sonatype Inc. and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -22,6 +22,7 @@ import org.eclipse.tycho.p2.repository.RepositoryReader;
 import org.eclipse.tycho.p2.resolver.facade.P2ResolverFactory;
 import org.eclipse.tycho.p2.target.PomDependencyCollectorImpl;
 import org.eclipse.tycho.p2.target.TargetDefinitionResolverService;
+import org.eclipse.tycho.p2.target.TargetPlatformContentCache;
 import org.eclipse.tycho.p2.target.TargetPlatformFactoryImpl;
 import org.eclipse.tycho.p2.target.facade.PomDependencyCollector;
 import org.eclipse.tycho.repository.local.LocalArtifactRepository;
@@ -38,6 +39,8 @@ public class P2ResolverFactoryImpl implements P2ResolverFactory {
     private RemoteAgentManager remoteAgentManager;
     private TargetDefinitionResolverService targetDefinitionResolverService;
 
+    private final TargetPlatformContentCache targetPlatformContentCache = new TargetPlatformContentCache();
+
     private static synchronized LocalMetadataRepository getLocalMetadataRepository(MavenContext context,
             LocalRepositoryP2Indices localRepoIndices) {
         if (localMetadataRepository == null) {
@@ -71,7 +74,7 @@ public class P2ResolverFactoryImpl implements P2ResolverFactory {
             LocalMetadataRepository localMetadataRepo = getLocalMetadataRepository(mavenContext, localRepoIndices);
             LocalArtifactRepository localArtifactRepo = getLocalArtifactRepository(mavenContext, localRepoIndices);
             return new TargetPlatformFactoryImpl(mavenContext, remoteAgentManager.getProvisioningAgent(),
-                    localArtifactRepo, localMetadataRepo, targetDefinitionResolverService);
+                    localArtifactRepo, localMetadataRepo, targetDefinitionResolverService, targetPlatformContentCache);
         } catch (ProvisionException e) {
             throw new RuntimeException(e);
         }
@@ -82,6 +85,18 @@ public class P2ResolverFactoryImpl implements P2ResolverFactory {
         return new P2ResolverImpl(getTargetPlatformFactory(), logger);
     }
 
+    /**
+     * Writes the changes of the local artifact repository which haven't been saved yet, e.g. for
+     * artifacts downloaded after the last dependency resolution.
+     */
+    public void deactivate() {
+        synchronized (P2ResolverFactoryImpl.class) {
+            if (localArtifactRepository != null) {
+                localArtifactRepository.save();
+            }
+        }
+    }
+
     // setters for DS
 
     public void setMavenContext(MavenContext mavenContext) {
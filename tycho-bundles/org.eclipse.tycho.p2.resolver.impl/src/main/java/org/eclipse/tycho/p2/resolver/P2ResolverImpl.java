@@ -22,6 +22,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.equinox.p2.metadata.IArtifactKey;
@@ -112,10 +117,13 @@ public class P2ResolverImpl implements P2Resolver {
         ArrayList<P2ResolutionResult> results = new ArrayList<>();
         usedTargetPlatformUnits = new LinkedHashSet<>();
 
-        for (TargetEnvironment environment : environments) {
-            results.add(resolveDependencies(project, new ProjectorResolutionStrategy(logger), environment));
+        for (Collection<IInstallableUnit> newState : resolveEnvironments(project)) {
+            results.add(toProjectResolutionResult(newState, project));
         }
 
+        // local repository index needs to be saved manually; once for all environments is enough
+        context.saveLocalMavenRepository();
+
         context.reportUsedLocalIUs(usedTargetPlatformUnits);
         usedTargetPlatformUnits = null;
 
@@ -125,7 +133,12 @@ public class P2ResolverImpl implements P2Resolver {
     @Override
     public P2ResolutionResult collectProjectDependencies(TargetPlatform targetPlatform, ReactorProject project) {
         setContext(targetPlatform, project);
-        return resolveDependencies(project, new DependencyCollector(logger), new TargetEnvironment(null, null, null));
+        P2ResolutionResult result = resolveDependencies(project, new DependencyCollector(logger),
+                new TargetEnvironment(null, null, null));
+
+        // local repository index needs to be saved manually
+        context.saveLocalMavenRepository();
+        return result;
     }
 
     @Override
@@ -134,7 +147,7 @@ public class P2ResolverImpl implements P2Resolver {
                 new ExecutionEnvironmentConfigurationStub(eeName), null, null);
 
         ResolutionDataImpl data = new ResolutionDataImpl(contextImpl.getEEResolutionHints());
-        data.setAvailableIUs(contextImpl.getInstallableUnits());
+        data.setAvailableIUs(contextImpl.getInstallableUnits(), contextImpl.getInstallableUnitsForResolution());
         data.setRootIUs(new HashSet<IInstallableUnit>());
         data.setAdditionalRequirements(additionalRequirements);
 
@@ -168,12 +181,81 @@ public class P2ResolverImpl implements P2Resolver {
         return result;
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Resolves the project for all configured environments. The environments are resolved
+     * concurrently because the resolution for one environment is independent of the others.
+     */
+    private List<Collection<IInstallableUnit>> resolveEnvironments(final ReactorProject project) {
+        List<Collection<IInstallableUnit>> result = new ArrayList<>(environments.size());
+        if (environments.isEmpty()) {
+            return result;
+        } else if (environments.size() == 1) {
+            try {
+                result.add(resolveUnits(project, new ProjectorResolutionStrategy(logger), environments.get(0),
+                        monitor));
+            } catch (ResolverException e) {
+                throw newResolutionFailure(project, e);
+            }
+            return result;
+        }
+
+        int threads = Math.min(environments.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Collection<IInstallableUnit>>> futures = new ArrayList<>(environments.size());
+            for (final TargetEnvironment environment : environments) {
+                futures.add(executor.submit(new Callable<Collection<IInstallableUnit>>() {
+                    @Override
+                    public Collection<IInstallableUnit> call() throws ResolverException {
+                        // progress monitor is not thread-safe
+                        return resolveUnits(project, new ProjectorResolutionStrategy(logger), environment,
+                                new LoggingProgressMonitor(logger));
+                    }
+                }));
+            }
+            // errors are reported in the order of the environments
+            for (Future<Collection<IInstallableUnit>> future : futures) {
+                try {
+                    result.add(future.get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof ResolverException) {
+                        throw newResolutionFailure(project, (ResolverException) cause);
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new RuntimeException(cause);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while resolving dependencies of " + project, e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
     protected P2ResolutionResult resolveDependencies(ReactorProject project, AbstractResolutionStrategy strategy,
             TargetEnvironment environment) {
+        Collection<IInstallableUnit> newState;
+        try {
+            newState = resolveUnits(project, strategy, environment, monitor);
+        } catch (ResolverException e) {
+            throw newResolutionFailure(project, e);
+        }
+        return toProjectResolutionResult(newState, project);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<IInstallableUnit> resolveUnits(ReactorProject project, AbstractResolutionStrategy strategy,
+            TargetEnvironment environment, IProgressMonitor monitor) throws ResolverException {
         ResolutionDataImpl data = new ResolutionDataImpl(context.getEEResolutionHints());
 
         Set<IInstallableUnit> availableUnits = context.getInstallableUnits();
+        boolean availableUnitsFromTargetPlatform = true;
         if (project != null) {
             data.setRootIUs((Set<IInstallableUnit>) project.getDependencyMetadata(true));
             Collection<IInstallableUnit> projectSecondaryIUs = (Collection<IInstallableUnit>) project
@@ -181,27 +263,35 @@ public class P2ResolverImpl implements P2Resolver {
             if (!projectSecondaryIUs.isEmpty()) {
                 availableUnits = new LinkedHashSet<>(availableUnits);
                 availableUnits.addAll(projectSecondaryIUs);
+                availableUnitsFromTargetPlatform = false;
             }
         } else {
             data.setRootIUs(Collections.<IInstallableUnit> emptySet());
         }
         data.setAdditionalRequirements(additionalRequirements);
-        data.setAvailableIUs(availableUnits);
+        if (availableUnitsFromTargetPlatform) {
+            // reuse the index of the target platform content
+            data.setAvailableIUs(availableUnits, context.getInstallableUnitsForResolution());
+        } else {
+            data.setAvailableIUs(availableUnits);
+        }
         data.setAdditionalFilterProperties(additionalFilterProperties);
 
         strategy.setData(data);
-        Collection<IInstallableUnit> newState;
-        try {
-            newState = strategy.resolve(environment, monitor);
-        } catch (ResolverException e) {
-            logger.info(e.getSelectionContext());
-            logger.error("Cannot resolve project dependencies:");
-            new MultiLineLogger(logger).error(e.getDetails(), "  ");
-            logger.error("");
-            logger.error("See http://wiki.eclipse.org/Tycho/Dependency_Resolution_Troubleshooting for help.");
-            throw new DependencyResolutionException("Cannot resolve dependencies of " + project.toString(), e);
-        }
+        return strategy.resolve(environment, monitor);
+    }
 
+    private DependencyResolutionException newResolutionFailure(ReactorProject project, ResolverException e) {
+        logger.info(e.getSelectionContext());
+        logger.error("Cannot resolve project dependencies:");
+        new MultiLineLogger(logger).error(e.getDetails(), "  ");
+        logger.error("");
+        logger.error("See http://wiki.eclipse.org/Tycho/Dependency_Resolution_Troubleshooting for help.");
+        return new DependencyResolutionException("Cannot resolve dependencies of " + project.toString(), e);
+    }
+
+    private P2ResolutionResult toProjectResolutionResult(Collection<IInstallableUnit> newState,
+            ReactorProject project) {
         if (usedTargetPlatformUnits != null) {
             usedTargetPlatformUnits.addAll(newState);
         }
@@ -213,15 +303,13 @@ public class P2ResolverImpl implements P2Resolver {
         DefaultP2ResolutionResult result = new DefaultP2ResolutionResult();
         Set<String> missingArtifacts = new TreeSet<>();
 
+        downloadArtifacts(newState);
         for (IInstallableUnit iu : newState) {
             addUnit(result, iu, currentProject, missingArtifacts);
         }
         // remove entries for which there were only "additional" IUs, but none with a recognized type
         result.removeEntriesWithUnknownType();
 
-        // local repository index needs to be saved manually
-        context.saveLocalMavenRepository();
-
         failIfArtifactsMissing(missingArtifacts);
 
         // TODO 372780 remove; no longer needed when aggregation uses frozen target platform as source
@@ -229,6 +317,21 @@ public class P2ResolverImpl implements P2Resolver {
         return result;
     }
 
+    /**
+     * Downloads the artifacts of the resolved external units in one go, so that this can be done in
+     * parallel.
+     */
+    private void downloadArtifacts(Collection<IInstallableUnit> newState) {
+        List<IArtifactKey> externalArtifacts = new ArrayList<>();
+        for (IInstallableUnit iu : newState) {
+            if (!currentProjectUnits.contains(iu) && context.getOriginalReactorProjectMap().get(iu) == null
+                    && context.getOriginalMavenArtifactMap().get(iu) == null) {
+                externalArtifacts.addAll(iu.getArtifacts());
+            }
+        }
+        context.downloadArtifacts(externalArtifacts);
+    }
+
     private void addUnit(DefaultP2ResolutionResult result, IInstallableUnit iu, ReactorProject currentProject,
             Set<String> missingArtifacts) {
 
@@ -250,7 +353,7 @@ public class P2ResolverImpl implements P2Resolver {
         }
 
         for (IArtifactKey key : iu.getArtifacts()) {
-            // this downloads artifacts if necessary; TODO parallelize download?
+            // this downloads artifacts if they haven't been downloaded in downloadArtifacts
             File artifactLocation = context.getLocalArtifactFile(key);
 
             if (artifactLocation == null) {
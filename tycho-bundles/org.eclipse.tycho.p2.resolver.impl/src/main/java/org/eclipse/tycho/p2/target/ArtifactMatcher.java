@@ -10,34 +10,33 @@
  *******************************************************************************/
 package org.eclipse.tycho.p2.target;
 
-import java.util.LinkedHashSet;
-
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
 import org.eclipse.equinox.p2.metadata.Version;
 import org.eclipse.equinox.p2.metadata.VersionRange;
 import org.eclipse.equinox.p2.query.IQuery;
 import org.eclipse.equinox.p2.query.IQueryResult;
+import org.eclipse.equinox.p2.query.IQueryable;
 import org.eclipse.equinox.p2.query.QueryUtil;
 import org.eclipse.tycho.artifacts.IllegalArtifactReferenceException;
 
 public class ArtifactMatcher {
 
     public static IInstallableUnit resolveReference(String type, String id, Version version,
-            LinkedHashSet<IInstallableUnit> candidateUnits) throws IllegalArtifactReferenceException {
+            IQueryable<IInstallableUnit> candidateUnits) throws IllegalArtifactReferenceException {
         if (id == null) {
             throw new IllegalArtifactReferenceException("ID is required");
         }
 
         VersionRange versionRange = getVersionRangeFromReference(version);
-        IQuery<IInstallableUnit> query = QueryUtil.createLatestQuery(ArtifactTypeHelper.createQueryFor(type, id,
-                versionRange));
+        IQuery<IInstallableUnit> query = ArtifactTypeHelper.createQueryFor(type, id, versionRange);
 
-        IQueryResult<IInstallableUnit> matchingIUs = query.perform(candidateUnits.iterator());
+        // query the candidates first so that indices can be used; only then pick the latest match
+        IQueryResult<IInstallableUnit> matchingIUs = candidateUnits.query(query, null);
         if (matchingIUs.isEmpty()) {
             return null;
-        } else {
-            return matchingIUs.iterator().next();
         }
+        IQueryResult<IInstallableUnit> latestIUs = QueryUtil.createLatestQuery(query).perform(matchingIUs.iterator());
+        return latestIUs.iterator().next();
     }
 
     public static Version parseAsOSGiVersion(String version) throws IllegalArtifactReferenceException {
@@ -22,6 +22,7 @@ import org.eclipse.tycho.ReactorProjectIdentities;
 import org.eclipse.tycho.p2.metadata.IArtifactFacade;
 import org.eclipse.tycho.p2.util.resolution.ExecutionEnvironmentResolutionHints;
 import org.eclipse.tycho.repository.local.LocalArtifactRepository;
+import org.eclipse.tycho.repository.local.MirroringArtifactProvider;
 import org.eclipse.tycho.repository.p2base.artifact.provider.IRawArtifactFileProvider;
 import org.eclipse.tycho.repository.p2base.metadata.ImmutableInMemoryMetadataRepository;
 
@@ -32,8 +33,17 @@ public class FinalTargetPlatformImpl extends TargetPlatformBaseImpl {
             LocalArtifactRepository localArtifactRepository,
             Map<IInstallableUnit, IArtifactFacade> mavenArtifactLookup,
             Map<IInstallableUnit, ReactorProjectIdentities> reactorProjectLookup) {
-        super(installableUnits, executionEnvironment, jointArtifacts, localArtifactRepository, reactorProjectLookup,
-                mavenArtifactLookup);
+        this(installableUnits, executionEnvironment, jointArtifacts, null, localArtifactRepository,
+                mavenArtifactLookup, reactorProjectLookup);
+    }
+
+    public FinalTargetPlatformImpl(LinkedHashSet<IInstallableUnit> installableUnits,
+            ExecutionEnvironmentResolutionHints executionEnvironment, IRawArtifactFileProvider jointArtifacts,
+            MirroringArtifactProvider remoteArtifactCache, LocalArtifactRepository localArtifactRepository,
+            Map<IInstallableUnit, IArtifactFacade> mavenArtifactLookup,
+            Map<IInstallableUnit, ReactorProjectIdentities> reactorProjectLookup) {
+        super(installableUnits, executionEnvironment, jointArtifacts, remoteArtifactCache, localArtifactRepository,
+                reactorProjectLookup, mavenArtifactLookup);
     }
 
     @Override
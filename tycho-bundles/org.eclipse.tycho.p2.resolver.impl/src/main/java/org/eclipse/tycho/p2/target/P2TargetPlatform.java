@@ -18,6 +18,7 @@ import java.util.Set;
 import org.eclipse.equinox.p2.metadata.IArtifactKey;
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
 import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.equinox.p2.query.IQueryable;
 import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
 import org.eclipse.tycho.ReactorProjectIdentities;
 import org.eclipse.tycho.artifacts.DependencyResolutionException;
@@ -33,6 +34,14 @@ public interface P2TargetPlatform extends TargetPlatform {
 
     Set<IInstallableUnit> getInstallableUnits();
 
+    /**
+     * Returns an indexed view on the installable units, including the units added temporarily for
+     * the execution environment (see
+     * {@link ExecutionEnvironmentResolutionHints#getTemporaryAdditions()}). The view is created once
+     * and shared by all dependency resolutions against this target platform.
+     */
+    IQueryable<IInstallableUnit> getInstallableUnitsForResolution();
+
     /**
      * Returns the target platform content as (immutable) p2 metadata repository.
      */
@@ -47,6 +56,13 @@ public interface P2TargetPlatform extends TargetPlatform {
 
     File getLocalArtifactFile(IArtifactKey key);
 
+    /**
+     * Makes sure that the given artifacts are available locally, so that subsequent calls to
+     * {@link #getLocalArtifactFile(IArtifactKey)} don't need to download them. Depending on the
+     * configuration, missing artifacts are downloaded in parallel.
+     */
+    void downloadArtifacts(Collection<IArtifactKey> keys);
+
     /**
      * Returns the map from target platform installable units back to the contributing reactor
      * project.
@@ -30,6 +30,7 @@ import org.eclipse.tycho.p2.target.filters.TargetPlatformFilterEvaluator;
 import org.eclipse.tycho.p2.util.resolution.ExecutionEnvironmentResolutionHints;
 import org.eclipse.tycho.repository.local.LocalArtifactRepository;
 import org.eclipse.tycho.repository.local.LocalMetadataRepository;
+import org.eclipse.tycho.repository.local.MirroringArtifactProvider;
 import org.eclipse.tycho.repository.p2base.artifact.provider.IRawArtifactFileProvider;
 
 public class PreliminaryTargetPlatformImpl extends TargetPlatformBaseImpl {
@@ -56,9 +57,10 @@ public class PreliminaryTargetPlatformImpl extends TargetPlatformBaseImpl {
             Collection<IInstallableUnit> externalIUs, Map<IInstallableUnit, IArtifactFacade> mavenArtifactIUs,
             ExecutionEnvironmentResolutionHints executionEnvironment, TargetPlatformFilterEvaluator filter,
             LocalMetadataRepository localMetadataRepository, IRawArtifactFileProvider externalArtifacts,
-            LocalArtifactRepository localArtifactRepository, boolean includeLocalRepo, MavenLogger logger) {
+            MirroringArtifactProvider remoteArtifactCache, LocalArtifactRepository localArtifactRepository,
+            boolean includeLocalRepo, MavenLogger logger) {
         super(collectAllInstallableUnits(reactorProjectIUs, externalIUs, executionEnvironment), executionEnvironment,
-                externalArtifacts, localArtifactRepository, reactorProjectIUs, mavenArtifactIUs);
+                externalArtifacts, remoteArtifactCache, localArtifactRepository, reactorProjectIUs, mavenArtifactIUs);
         this.externalIUs = externalIUs;
         this.filter = filter;
         this.localMetadataRepository = localMetadataRepository;
@@ -119,6 +121,10 @@ public class PreliminaryTargetPlatformImpl extends TargetPlatformBaseImpl {
         return artifacts;
     }
 
+    public MirroringArtifactProvider getRemoteArtifactCache() {
+        return remoteArtifactCache;
+    }
+
     @Override
     public File getArtifactLocation(ArtifactKey artifact) {
         // the preliminary TP lacks the reactor artifacts so this method doesn't make sense
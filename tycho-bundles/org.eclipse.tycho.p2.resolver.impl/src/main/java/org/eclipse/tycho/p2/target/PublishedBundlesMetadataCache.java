@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * Copyright (c) 2015 SAP SE and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    SAP SE - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.tycho.p2.target;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactDescriptor;
+import org.eclipse.tycho.core.shared.LRUCache;
+import org.eclipse.tycho.core.shared.MavenLogger;
+import org.eclipse.tycho.p2.maven.repository.xmlio.ArtifactsIO;
+import org.eclipse.tycho.p2.maven.repository.xmlio.MetadataIO;
+import org.eclipse.tycho.p2.metadata.IArtifactFacade;
+import org.eclipse.tycho.p2.repository.RepositoryLayoutHelper;
+
+/**
+ * Cache for the p2 metadata generated by the {@link TargetPlatformBundlePublisher} for POM
+ * dependency artifacts. The most recently used results are kept in memory (for other projects of
+ * the same build) and all results are kept in the local Maven repository (for subsequent builds).
+ *
+ * <p>
+ * Entries are keyed by the GAV of the artifact and the size and modification time of the artifact
+ * file, so that artifacts updated by other builds are published again.
+ * </p>
+ */
+class PublishedBundlesMetadataCache {
+
+    public static final String CACHE_RELPATH = ".cache/tycho/pom-dependency-metadata";
+
+    // increment when the format of the cache entries changes
+    private static final String FORMAT_VERSION = "1";
+
+    private static final String KEY_FORMAT = "format";
+    private static final String KEY_SIZE = "size";
+    private static final String KEY_LAST_MODIFIED = "lastModified";
+    private static final String KEY_BUNDLE = "bundle";
+
+    // bounded because the bundle, and hence the cache, may live across several builds in the same JVM
+    private static final int MEMORY_CACHE_SIZE = 1000;
+
+    private static final Map<String, Entry> memoryCache = Collections
+            .synchronizedMap(new LRUCache<String, Entry>(MEMORY_CACHE_SIZE));
+
+    private final File cacheDirectory;
+
+    private final MavenLogger logger;
+
+    public PublishedBundlesMetadataCache(File localMavenRepositoryRoot, MavenLogger logger) {
+        this.cacheDirectory = new File(localMavenRepositoryRoot, CACHE_RELPATH);
+        this.logger = logger;
+    }
+
+    /**
+     * Returns the cached publishing result for the given artifact, or <code>null</code> if the
+     * artifact hasn't been published yet or has changed since.
+     */
+    public Entry get(IArtifactFacade mavenArtifact) {
+        String key = memoryKey(mavenArtifact);
+        Entry result = memoryCache.get(key);
+        if (result == null) {
+            result = readFromDisk(mavenArtifact);
+            if (result != null) {
+                memoryCache.put(key, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stores the publishing result for the given artifact.
+     *
+     * @param unit
+     *            the published unit, or <code>null</code> if the artifact is not a bundle
+     * @param descriptor
+     *            the published artifact descriptor, or <code>null</code> if the artifact is not a
+     *            bundle
+     */
+    public void put(IArtifactFacade mavenArtifact, IInstallableUnit unit, IArtifactDescriptor descriptor) {
+        Entry entry = new Entry(unit, descriptor);
+        memoryCache.put(memoryKey(mavenArtifact), entry);
+        writeToDisk(mavenArtifact, entry);
+    }
+
+    /**
+     * Discards the results kept in memory, so that they are read from the local Maven repository
+     * again. Only needed in tests, which simulate a subsequent build.
+     */
+    static void clearMemoryCache() {
+        memoryCache.clear();
+    }
+
+    private static String memoryKey(IArtifactFacade mavenArtifact) {
+        File file = mavenArtifact.getLocation();
+        return mavenArtifact.getGroupId() + ":" + mavenArtifact.getArtifactId() + ":" + mavenArtifact.getVersion()
+                + ":" + mavenArtifact.getClassifier() + ":" + file.getAbsolutePath() + ":" + file.length() + ":"
+                + file.lastModified();
+    }
+
+    private Entry readFromDisk(IArtifactFacade mavenArtifact) {
+        File propertiesFile = getCacheFile(mavenArtifact, "properties");
+        if (!propertiesFile.isFile()) {
+            return null;
+        }
+
+        try {
+            Properties properties = readProperties(propertiesFile);
+            File artifactFile = mavenArtifact.getLocation();
+            if (!FORMAT_VERSION.equals(properties.getProperty(KEY_FORMAT))
+                    || !String.valueOf(artifactFile.length()).equals(properties.getProperty(KEY_SIZE))
+                    || !String.valueOf(artifactFile.lastModified()).equals(properties.getProperty(KEY_LAST_MODIFIED))) {
+                return null;
+            }
+            if (!Boolean.parseBoolean(properties.getProperty(KEY_BUNDLE))) {
+                return new Entry(null, null);
+            }
+
+            Set<IInstallableUnit> units;
+            InputStream unitsStream = new BufferedInputStream(new FileInputStream(getCacheFile(mavenArtifact,
+                    "content.xml")));
+            try {
+                units = new MetadataIO().readXML(unitsStream);
+            } finally {
+                unitsStream.close();
+            }
+            Set<IArtifactDescriptor> descriptors = new ArtifactsIO().readXML(new BufferedInputStream(
+                    new FileInputStream(getCacheFile(mavenArtifact, "artifacts.xml"))));
+            if (units.size() != 1 || descriptors == null || descriptors.size() != 1) {
+                return null;
+            }
+            return new Entry(units.iterator().next(), descriptors.iterator().next());
+
+        } catch (IOException e) {
+            logger.debug("Failed to read cached p2 metadata for " + mavenArtifact.getLocation() + ": " + e);
+            return null;
+        }
+    }
+
+    private void writeToDisk(IArtifactFacade mavenArtifact, Entry entry) {
+        try {
+            File propertiesFile = getCacheFile(mavenArtifact, "properties");
+            propertiesFile.getParentFile().mkdirs();
+
+            // the properties file marks the entry as valid -> remove it while the entry is updated
+            propertiesFile.delete();
+
+            if (entry.unit != null) {
+                new MetadataIO().writeXML(Collections.singleton(entry.unit), getCacheFile(mavenArtifact, "content.xml"));
+                new ArtifactsIO().writeXML(Collections.singleton(entry.descriptor),
+                        getCacheFile(mavenArtifact, "artifacts.xml"));
+            }
+
+            File artifactFile = mavenArtifact.getLocation();
+            Properties properties = new Properties();
+            properties.setProperty(KEY_FORMAT, FORMAT_VERSION);
+            properties.setProperty(KEY_SIZE, String.valueOf(artifactFile.length()));
+            properties.setProperty(KEY_LAST_MODIFIED, String.valueOf(artifactFile.lastModified()));
+            properties.setProperty(KEY_BUNDLE, String.valueOf(entry.unit != null));
+
+            File tempFile = File.createTempFile(propertiesFile.getName(), ".tmp", propertiesFile.getParentFile());
+            writeProperties(properties, tempFile);
+            if (!tempFile.renameTo(propertiesFile)) {
+                tempFile.delete();
+            }
+        } catch (IOException e) {
+            logger.debug("Failed to cache p2 metadata for " + mavenArtifact.getLocation() + ": " + e);
+        }
+    }
+
+    private File getCacheFile(IArtifactFacade mavenArtifact, String extension) {
+        String relativePath = RepositoryLayoutHelper.getRelativePath(mavenArtifact.getGroupId(),
+                mavenArtifact.getArtifactId(), mavenArtifact.getVersion(), mavenArtifact.getClassifier(), extension);
+        return new File(cacheDirectory, relativePath);
+    }
+
+    private static Properties readProperties(File file) throws IOException {
+        Properties properties = new Properties();
+        InputStream stream = new FileInputStream(file);
+        try {
+            properties.load(stream);
+        } finally {
+            stream.close();
+        }
+        return properties;
+    }
+
+    private static void writeProperties(Properties properties, File file) throws IOException {
+        OutputStream stream = new FileOutputStream(file);
+        try {
+            properties.store(stream, null);
+        } finally {
+            stream.close();
+        }
+    }
+
+    static final class Entry {
+        final IInstallableUnit unit;
+        final IArtifactDescriptor descriptor;
+
+        Entry(IInstallableUnit unit, IArtifactDescriptor descriptor) {
+            this.unit = unit;
+            this.descriptor = descriptor;
+        }
+    }
+}
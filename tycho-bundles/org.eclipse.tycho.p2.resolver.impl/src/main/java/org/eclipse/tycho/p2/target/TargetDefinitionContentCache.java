@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright (c) 2015 SAP SE and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    SAP SE - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.tycho.p2.target;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.metadata.IProvidedCapability;
+import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.tycho.core.shared.MavenLogger;
+import org.eclipse.tycho.core.shared.TargetEnvironment;
+import org.eclipse.tycho.p2.maven.repository.xmlio.MetadataIO;
+import org.eclipse.tycho.p2.target.facade.TargetDefinition;
+import org.eclipse.tycho.p2.target.facade.TargetDefinition.InstallableUnitLocation;
+import org.eclipse.tycho.p2.target.facade.TargetDefinition.Location;
+import org.eclipse.tycho.p2.target.facade.TargetDefinition.Repository;
+import org.eclipse.tycho.p2.target.facade.TargetDefinition.Unit;
+import org.eclipse.tycho.p2.util.resolution.ExecutionEnvironmentResolutionHints;
+
+/**
+ * Persistent cache for target definition resolution results. The entries are stored in the local
+ * Maven repository and are keyed by a hash over the content of the target definition, the target
+ * environments, and the execution environment units, so that they can be reused across builds.
+ *
+ * <p>
+ * Only target definitions which reference all units with an explicit version are cached. The
+ * resolution result of other target definitions depends on the current content of the p2
+ * repositories.
+ * </p>
+ */
+class TargetDefinitionContentCache {
+
+    public static final String CACHE_RELPATH = ".cache/tycho/target-definitions";
+
+    // increment when the format of the key or the cache entries changes
+    private static final String FORMAT_VERSION = "1";
+
+    private static final String UNITS_SUFFIX = ".units.xml";
+    private static final String REPOSITORIES_SUFFIX = ".repositories";
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final File cacheDirectory;
+
+    private final MavenLogger logger;
+
+    public TargetDefinitionContentCache(File localRepositoryRoot, MavenLogger logger) {
+        this.cacheDirectory = new File(localRepositoryRoot, CACHE_RELPATH);
+        this.logger = logger;
+    }
+
+    /**
+     * Returns the key for the persisted resolution result of the given arguments, or
+     * <code>null</code> if the resolution result may not be cached.
+     */
+    public String computeKey(TargetDefinition definition, List<TargetEnvironment> environments,
+            ExecutionEnvironmentResolutionHints jreIUs) {
+        StringBuilder keyContent = new StringBuilder();
+        keyContent.append(FORMAT_VERSION).append('\n');
+
+        for (Location location : definition.getLocations()) {
+            if (!(location instanceof InstallableUnitLocation)) {
+                return null;
+            }
+            InstallableUnitLocation iuLocation = (InstallableUnitLocation) location;
+            keyContent.append("location ").append(iuLocation.getIncludeMode()).append(' ')
+                    .append(iuLocation.includeAllEnvironments()).append(' ').append(iuLocation.includeSource())
+                    .append('\n');
+            for (Repository repository : iuLocation.getRepositories()) {
+                keyContent.append("repository ").append(repository.getLocation()).append('\n');
+            }
+            for (Unit unit : iuLocation.getUnits()) {
+                if (!hasExplicitVersion(unit)) {
+                    return null;
+                }
+                keyContent.append("unit ").append(unit.getId()).append(' ').append(unit.getVersion()).append('\n');
+            }
+        }
+        keyContent.append("includedBundles ").append(definition.hasIncludedBundles()).append('\n');
+
+        for (TargetEnvironment environment : environments) {
+            keyContent.append("environment ").append(environment).append('\n');
+        }
+
+        keyContent.append("ee ").append(jreIUs.getClass().getName()).append('\n');
+        appendUnits(keyContent, "eeUnit ", jreIUs.getMandatoryUnits());
+        appendUnits(keyContent, "eeTemporaryUnit ", jreIUs.getTemporaryAdditions());
+
+        return sha1(keyContent.toString());
+    }
+
+    private static boolean hasExplicitVersion(Unit unit) {
+        String version = unit.getVersion();
+        if (version == null) {
+            return false;
+        }
+        try {
+            return !Version.emptyVersion.equals(Version.parseVersion(version));
+        } catch (IllegalArgumentException e) {
+            // syntax error is reported by the resolver
+            return false;
+        }
+    }
+
+    private static void appendUnits(StringBuilder keyContent, String prefix, Collection<IInstallableUnit> units) {
+        for (IInstallableUnit unit : units) {
+            keyContent.append(prefix).append(unit.getId()).append(' ').append(unit.getVersion()).append('\n');
+            for (IProvidedCapability capability : unit.getProvidedCapabilities()) {
+                keyContent.append("  ").append(capability).append('\n');
+            }
+        }
+    }
+
+    /**
+     * Returns the persisted resolution result for the given key, or <code>null</code> if there is
+     * no (readable) entry.
+     */
+    public TargetDefinitionContent read(String key) {
+        File unitsFile = new File(cacheDirectory, key + UNITS_SUFFIX);
+        File repositoriesFile = new File(cacheDirectory, key + REPOSITORIES_SUFFIX);
+        if (!unitsFile.isFile() || !repositoriesFile.isFile()) {
+            return null;
+        }
+
+        try {
+            List<URI> artifactRepositories = readRepositories(repositoriesFile);
+            InputStream unitsStream = new BufferedInputStream(new FileInputStream(unitsFile));
+            try {
+                return new TargetDefinitionContent(new MetadataIO().readXML(unitsStream), artifactRepositories);
+            } finally {
+                unitsStream.close();
+            }
+        } catch (IOException | URISyntaxException e) {
+            logger.warn("Failed to read cached target definition content from " + unitsFile + "; ignoring cache entry",
+                    e);
+            return null;
+        }
+    }
+
+    private static List<URI> readRepositories(File repositoriesFile) throws IOException, URISyntaxException {
+        List<URI> result = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(repositoriesFile), UTF8));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    result.add(new URI(line));
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return result;
+    }
+
+    /**
+     * Persists the resolution result for the given key. Failures are logged, but not propagated.
+     */
+    public void write(String key, TargetDefinitionContent content) {
+        File unitsFile = new File(cacheDirectory, key + UNITS_SUFFIX);
+        File repositoriesFile = new File(cacheDirectory, key + REPOSITORIES_SUFFIX);
+        try {
+            cacheDirectory.mkdirs();
+
+            // entries are only read if the repositories file exists -> write it last
+            File tempUnitsFile = File.createTempFile(key, ".tmp", cacheDirectory);
+            new MetadataIO().writeXML(new LinkedHashSet<>(content.getUnits()), tempUnitsFile);
+            moveTo(tempUnitsFile, unitsFile);
+
+            File tempRepositoriesFile = File.createTempFile(key, ".tmp", cacheDirectory);
+            writeRepositories(content.getArtifactRepositoryLocations(), tempRepositoriesFile);
+            moveTo(tempRepositoriesFile, repositoriesFile);
+
+        } catch (IOException e) {
+            logger.warn("Failed to cache target definition content in " + cacheDirectory, e);
+        }
+    }
+
+    private static void writeRepositories(Collection<URI> repositories, File file) throws IOException {
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), UTF8);
+        try {
+            for (URI repository : repositories) {
+                writer.write(repository.toString());
+                writer.write('\n');
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static void moveTo(File source, File target) throws IOException {
+        // another build may have written the same entry in the meantime
+        target.delete();
+        if (!source.renameTo(target)) {
+            source.delete();
+            throw new IOException("Could not move " + source + " to " + target);
+        }
+    }
+
+    private static String sha1(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(content.getBytes(UTF8));
+            StringBuilder result = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2013 SAP SE and others.
+ * Copyright (c) 2012, 2015 SAP SE and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -19,20 +19,32 @@ import org.eclipse.equinox.p2.core.IProvisioningAgent;
 import org.eclipse.tycho.core.shared.MavenContext;
 import org.eclipse.tycho.core.shared.MavenLogger;
 import org.eclipse.tycho.core.shared.TargetEnvironment;
+import org.eclipse.tycho.p2.remote.IRepositoryIdManager;
 import org.eclipse.tycho.p2.target.facade.TargetDefinition;
+import org.eclipse.tycho.p2.target.facade.TargetDefinition.InstallableUnitLocation;
+import org.eclipse.tycho.p2.target.facade.TargetDefinition.Location;
+import org.eclipse.tycho.p2.target.facade.TargetDefinition.Repository;
 import org.eclipse.tycho.p2.util.resolution.ExecutionEnvironmentResolutionHints;
 
 /**
  * Service instance for resolving target definitions. Results are cached so that there is no
  * redundant computations in the common case where all modules have the same target definition file
- * configured.
+ * configured. Access to the cache is synchronized so that the instance can be shared between projects
+ * which are resolved in parallel. In addition, results are persisted in the local Maven repository
+ * (see {@link TargetDefinitionContentCache}) so that they can be reused in subsequent builds.
  */
 public class TargetDefinitionResolverService {
 
     private static final String CACHE_MISS_MESSAGE = "Target definition content cache miss: ";
 
+    static final String PERSISTENT_CACHE_PROPERTY = "tycho.targetDefinitionCache";
+
     private Map<ResolutionArguments, TargetDefinitionContent> resolutionCache = new HashMap<>();
 
+    private TargetDefinitionContentCache persistentCache;
+
+    private boolean ignorePersistentCacheContent;
+
     // (static) collaborator
     private MavenLogger logger;
 
@@ -42,10 +54,10 @@ public class TargetDefinitionResolverService {
 
     // constructor for tests
     public TargetDefinitionResolverService(MavenContext mavenContext) {
-        this.logger = mavenContext.getLogger();
+        setMavenContext(mavenContext);
     }
 
-    public TargetDefinitionContent getTargetDefinitionContent(TargetDefinition definition,
+    public synchronized TargetDefinitionContent getTargetDefinitionContent(TargetDefinition definition,
             List<TargetEnvironment> environments, ExecutionEnvironmentResolutionHints jreIUs, IProvisioningAgent agent) {
         ResolutionArguments arguments = new ResolutionArguments(definition, environments, jreIUs, agent);
 
@@ -57,12 +69,36 @@ public class TargetDefinitionResolverService {
                 logger.debug("Resolving target definition content...");
             }
 
-            resolution = resolveFromArguments(arguments);
+            resolution = resolveFromPersistentCacheOrArguments(arguments);
             resolutionCache.put(arguments, resolution);
         }
         return resolution;
     }
 
+    private TargetDefinitionContent resolveFromPersistentCacheOrArguments(ResolutionArguments arguments) {
+        String persistentKey = persistentCache == null ? null : persistentCache.computeKey(arguments.definition,
+                arguments.environments, arguments.jreIUs);
+        if (persistentKey == null) {
+            return resolveFromArguments(arguments);
+        }
+
+        if (!ignorePersistentCacheContent) {
+            TargetDefinitionContent cachedResolution = persistentCache.read(persistentKey);
+            if (cachedResolution != null) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Using cached content of target definition " + arguments.definition.getOrigin());
+                }
+                // the resolver is skipped, so the repository IDs need to be registered here
+                registerRepositoryIDs(arguments);
+                return cachedResolution;
+            }
+        }
+
+        TargetDefinitionContent resolution = resolveFromArguments(arguments);
+        persistentCache.write(persistentKey, resolution);
+        return resolution;
+    }
+
     // this method must only have the cache key as parameter (to make sure that the key is complete)
     private TargetDefinitionContent resolveFromArguments(ResolutionArguments arguments) {
 
@@ -70,6 +106,22 @@ public class TargetDefinitionResolverService {
                 .resolveContent(arguments.definition);
     }
 
+    /**
+     * Registers the IDs of the repositories in the target definition, so that the mirror and server
+     * settings for these IDs apply when artifacts are downloaded from the repositories.
+     */
+    private static void registerRepositoryIDs(ResolutionArguments arguments) {
+        IRepositoryIdManager repositoryIdManager = (IRepositoryIdManager) arguments.agent
+                .getService(IRepositoryIdManager.SERVICE_NAME);
+        for (Location location : arguments.definition.getLocations()) {
+            if (location instanceof InstallableUnitLocation) {
+                for (Repository repository : ((InstallableUnitLocation) location).getRepositories()) {
+                    repositoryIdManager.addMapping(repository.getId(), repository.getLocation());
+                }
+            }
+        }
+    }
+
     private void debugCacheMiss(ResolutionArguments arguments) {
         if (resolutionCache.isEmpty()) {
             return;
@@ -96,6 +148,15 @@ public class TargetDefinitionResolverService {
     // setter for DS
     public void setMavenContext(MavenContext mavenContext) {
         this.logger = mavenContext.getLogger();
+        if (mavenContext.getLocalRepositoryRoot() != null) {
+            this.persistentCache = new TargetDefinitionContentCache(mavenContext.getLocalRepositoryRoot(), logger);
+        }
+        String persistentCacheSetting = mavenContext.getSessionProperties().getProperty(PERSISTENT_CACHE_PROPERTY);
+        if ("ignore".equalsIgnoreCase(persistentCacheSetting)) {
+            logger.debug(PERSISTENT_CACHE_PROPERTY + "=" + persistentCacheSetting
+                    + " -> ignoring cached target definition content");
+            this.ignorePersistentCacheContent = true;
+        }
     }
 
     private static final class ResolutionArguments {
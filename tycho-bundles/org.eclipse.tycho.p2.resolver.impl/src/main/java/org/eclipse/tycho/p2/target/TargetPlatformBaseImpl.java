@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2014 SAP SE and others.
+ * Copyright (c) 2011, 2015 SAP SE and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,7 @@
 package org.eclipse.tycho.p2.target;
 
 import java.io.File;
+import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
@@ -18,6 +19,7 @@ import java.util.Set;
 import org.eclipse.equinox.p2.metadata.IArtifactKey;
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
 import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.equinox.p2.query.IQueryable;
 import org.eclipse.tycho.DefaultArtifactKey;
 import org.eclipse.tycho.ReactorProjectIdentities;
 import org.eclipse.tycho.artifacts.DependencyResolutionException;
@@ -25,7 +27,9 @@ import org.eclipse.tycho.artifacts.IllegalArtifactReferenceException;
 import org.eclipse.tycho.p2.metadata.IArtifactFacade;
 import org.eclipse.tycho.p2.util.resolution.ExecutionEnvironmentResolutionHints;
 import org.eclipse.tycho.repository.local.LocalArtifactRepository;
+import org.eclipse.tycho.repository.local.MirroringArtifactProvider;
 import org.eclipse.tycho.repository.p2base.artifact.provider.IRawArtifactFileProvider;
+import org.eclipse.tycho.repository.p2base.metadata.QueryableCollection;
 
 abstract class TargetPlatformBaseImpl implements P2TargetPlatform {
 
@@ -37,9 +41,20 @@ abstract class TargetPlatformBaseImpl implements P2TargetPlatform {
      * preliminary target platform where the reactor build order isn't known yet). Configured and
      * automatic filters have been applied.
      */
-    // TODO store as QueryableCollection, which contains indices to speed up queries?
     protected final LinkedHashSet<IInstallableUnit> installableUnits;
 
+    /**
+     * Indexed view on the {@link #installableUnits} for fast lookups by ID and by provided
+     * capability. Created lazily on the first lookup.
+     */
+    private QueryableCollection indexedInstallableUnits;
+
+    /**
+     * Indexed view on the {@link #installableUnits} and the units added by the execution environment
+     * for the dependency resolution. Created lazily on the first resolution.
+     */
+    private QueryableCollection unitsForResolution;
+
     // reverse lookup from target platform content to the contributing artifact/project 
 
     /**
@@ -62,12 +77,19 @@ abstract class TargetPlatformBaseImpl implements P2TargetPlatform {
     final ExecutionEnvironmentResolutionHints executionEnvironment;
 
     final IRawArtifactFileProvider artifacts;
+
+    /**
+     * The part of {@link #artifacts} which mirrors remote artifacts to the local Maven repository.
+     * May be <code>null</code>.
+     */
+    final MirroringArtifactProvider remoteArtifactCache;
+
     @Deprecated
     private LocalArtifactRepository localArtifactRepository;
 
     public TargetPlatformBaseImpl(LinkedHashSet<IInstallableUnit> installableUnits,
             ExecutionEnvironmentResolutionHints executionEnvironment, IRawArtifactFileProvider artifacts,
-            LocalArtifactRepository localArtifactRepository,
+            MirroringArtifactProvider remoteArtifactCache, LocalArtifactRepository localArtifactRepository,
             Map<IInstallableUnit, ReactorProjectIdentities> reactorProjectLookup,
             Map<IInstallableUnit, IArtifactFacade> mavenArtifactLookup) {
         this.installableUnits = installableUnits;
@@ -75,6 +97,7 @@ abstract class TargetPlatformBaseImpl implements P2TargetPlatform {
         this.reactorProjectLookup = reactorProjectLookup;
         this.mavenArtifactLookup = mavenArtifactLookup;
         this.artifacts = artifacts;
+        this.remoteArtifactCache = remoteArtifactCache;
         this.localArtifactRepository = localArtifactRepository;
     }
 
@@ -94,7 +117,8 @@ abstract class TargetPlatformBaseImpl implements P2TargetPlatform {
     public final IInstallableUnit resolveUnit(String type, String id, Version version)
             throws IllegalArtifactReferenceException, DependencyResolutionException {
 
-        IInstallableUnit matchingUnit = ArtifactMatcher.resolveReference(type, id, version, installableUnits);
+        IInstallableUnit matchingUnit = ArtifactMatcher.resolveReference(type, id, version,
+                getIndexedInstallableUnits());
         if (matchingUnit == null) {
             String message;
             if (version == null) {
@@ -108,6 +132,31 @@ abstract class TargetPlatformBaseImpl implements P2TargetPlatform {
         return matchingUnit;
     }
 
+    private synchronized QueryableCollection getIndexedInstallableUnits() {
+        if (indexedInstallableUnits == null) {
+            indexedInstallableUnits = new QueryableCollection(installableUnits);
+        }
+        return indexedInstallableUnits;
+    }
+
+    @Override
+    public final IQueryable<IInstallableUnit> getInstallableUnitsForResolution() {
+        if (installableUnits.containsAll(executionEnvironment.getTemporaryAdditions())
+                && installableUnits.containsAll(executionEnvironment.getMandatoryUnits())) {
+            // share the index with the artifact reference lookups
+            return getIndexedInstallableUnits();
+        }
+        synchronized (this) {
+            if (unitsForResolution == null) {
+                LinkedHashSet<IInstallableUnit> units = new LinkedHashSet<>(installableUnits);
+                units.addAll(executionEnvironment.getTemporaryAdditions());
+                units.addAll(executionEnvironment.getMandatoryUnits());
+                unitsForResolution = new QueryableCollection(units);
+            }
+            return unitsForResolution;
+        }
+    }
+
     @Override
     public final ExecutionEnvironmentResolutionHints getEEResolutionHints() {
         return executionEnvironment;
@@ -128,6 +177,13 @@ abstract class TargetPlatformBaseImpl implements P2TargetPlatform {
         return artifacts.getArtifactFile(key);
     }
 
+    @Override
+    public final void downloadArtifacts(Collection<IArtifactKey> keys) {
+        if (remoteArtifactCache != null) {
+            remoteArtifactCache.prefetchArtifacts(keys);
+        }
+    }
+
     @Override
     public final void saveLocalMavenRepository() {
         localArtifactRepository.save();
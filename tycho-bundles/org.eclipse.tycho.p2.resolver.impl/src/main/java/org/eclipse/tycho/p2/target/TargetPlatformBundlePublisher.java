@@ -40,9 +40,11 @@ public class TargetPlatformBundlePublisher {
 
     private final MavenLogger logger;
     private final PublishedBundlesArtifactRepository publishedArtifacts;
+    private final PublishedBundlesMetadataCache publishedMetadataCache;
 
     public TargetPlatformBundlePublisher(File localMavenRepositoryRoot, MavenLogger logger) {
         this.publishedArtifacts = new PublishedBundlesArtifactRepository(localMavenRepositoryRoot);
+        this.publishedMetadataCache = new PublishedBundlesMetadataCache(localMavenRepositoryRoot, logger);
         this.logger = logger;
     }
 
@@ -64,6 +66,10 @@ public class TargetPlatformBundlePublisher {
      * adds GAV properties to the generated IU. This is justified by the potential benefits of
      * tracing the origin of artifact.
      * </p>
+     * <p>
+     * Since the result only depends on the artifact, it is cached across projects and builds (see
+     * {@link PublishedBundlesMetadataCache}).
+     * </p>
      * 
      * @param mavenArtifact
      *            An artifact in local file system.
@@ -79,6 +85,14 @@ public class TargetPlatformBundlePublisher {
             return null;
         }
 
+        PublishedBundlesMetadataCache.Entry cachedResult = publishedMetadataCache.get(mavenArtifact);
+        if (cachedResult != null) {
+            if (cachedResult.unit != null) {
+                publishedArtifacts.addPublishedArtifact(cachedResult.descriptor, mavenArtifact);
+            }
+            return cachedResult.unit;
+        }
+
         PublisherRun publisherRun = new PublisherRun(mavenArtifact);
         IStatus status = publisherRun.execute();
 
@@ -92,10 +106,14 @@ public class TargetPlatformBundlePublisher {
         }
 
         IInstallableUnit publishedIU = publisherRun.getPublishedUnitIfExists();
+        IArtifactDescriptor publishedDescriptor = null;
         if (publishedIU != null) {
-            IArtifactDescriptor publishedDescriptor = publisherRun.getPublishedArtifactDescriptor();
+            publishedDescriptor = publisherRun.getPublishedArtifactDescriptor();
             publishedArtifacts.addPublishedArtifact(publishedDescriptor, mavenArtifact);
         }
+        if (status.isOK()) {
+            publishedMetadataCache.put(mavenArtifact, publishedIU, publishedDescriptor);
+        }
 
         return publishedIU;
     }
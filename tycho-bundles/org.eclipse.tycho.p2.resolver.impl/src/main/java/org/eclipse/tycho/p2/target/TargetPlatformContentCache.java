@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2015 SAP SE and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    SAP SE - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.tycho.p2.target;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.FutureTask;
+
+import org.eclipse.equinox.p2.core.IProvisioningAgent;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.tycho.artifacts.TargetPlatformFilter;
+import org.eclipse.tycho.core.resolver.shared.MavenRepositoryLocation;
+import org.eclipse.tycho.core.shared.TargetEnvironment;
+import org.eclipse.tycho.p2.target.facade.TargetDefinition;
+import org.eclipse.tycho.p2.target.facade.TargetPlatformConfigurationStub;
+import org.eclipse.tycho.p2.target.filters.TargetPlatformFilterEvaluator;
+import org.eclipse.tycho.p2.util.resolution.ExecutionEnvironmentResolutionHints;
+import org.eclipse.tycho.repository.local.MirroringArtifactProvider;
+
+/**
+ * Cache for the part of the preliminary target platform which does not depend on the project, i.e.
+ * the filtered units from the p2 repositories and target files, and the cache for the artifacts
+ * from these sources. Projects with the same target platform configuration share this content, so
+ * that it only needs to be computed once per build.
+ * 
+ * <p>
+ * The cache holds the (possibly still running) computation of the content per configuration, so
+ * that projects with the same configuration wait for each other, but projects with different
+ * configurations can compute their content in parallel.
+ * </p>
+ */
+public class TargetPlatformContentCache {
+
+    private final ConcurrentMap<Key, FutureTask<Content>> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Adds the computation of the content for the given key, unless there already is one.
+     * 
+     * @return the computation previously added for the key, or <code>null</code> if the given
+     *         computation has been added and needs to be run by the caller
+     */
+    FutureTask<Content> putIfAbsent(Key key, FutureTask<Content> computation) {
+        return cache.putIfAbsent(key, computation);
+    }
+
+    /**
+     * Removes a failed computation so that the content is computed again when requested the next
+     * time.
+     */
+    void remove(Key key, FutureTask<Content> computation) {
+        cache.remove(key, computation);
+    }
+
+    static final class Key {
+
+        private final List<MavenRepositoryLocation> repositories;
+        private final List<TargetDefinition> targetDefinitions;
+        private final List<TargetPlatformFilter> filters;
+        private final List<TargetEnvironment> environments;
+        private final boolean includePackedArtifacts;
+        private final ExecutionEnvironmentResolutionHints eeResolutionHints;
+        private final IProvisioningAgent agent;
+
+        Key(TargetPlatformConfigurationStub tpConfiguration, ExecutionEnvironmentResolutionHints eeResolutionHints,
+                IProvisioningAgent agent) {
+            this.repositories = new ArrayList<>(tpConfiguration.getP2Repositories());
+            this.targetDefinitions = new ArrayList<>(tpConfiguration.getTargetDefinitions());
+            this.filters = new ArrayList<>(tpConfiguration.getFilters());
+            this.environments = tpConfiguration.getEnvironments() == null ? null : new ArrayList<>(
+                    tpConfiguration.getEnvironments());
+            this.includePackedArtifacts = tpConfiguration.getIncludePackedArtifacts();
+            this.eeResolutionHints = eeResolutionHints;
+            this.agent = agent;
+        }
+
+        @Override
+        public int hashCode() {
+            final int prime = 37;
+            int result = 1;
+            result = prime * result + repositories.hashCode();
+            result = prime * result + targetDefinitions.hashCode();
+            result = prime * result + filters.hashCode();
+            result = prime * result + ((environments == null) ? 0 : environments.hashCode());
+            result = prime * result + (includePackedArtifacts ? 1231 : 1237);
+            result = prime * result + ((eeResolutionHints == null) ? 0 : eeResolutionHints.hashCode());
+            result = prime * result + ((agent == null) ? 0 : agent.hashCode());
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+
+            Key other = (Key) obj;
+            return repositories.equals(other.repositories) //
+                    && targetDefinitions.equals(other.targetDefinitions) //
+                    && filters.equals(other.filters) //
+                    && eq(environments, other.environments) //
+                    && includePackedArtifacts == other.includePackedArtifacts //
+                    && eq(eeResolutionHints, other.eeResolutionHints) //
+                    && eq(agent, other.agent); // expected to be object identity
+        }
+
+        private static <T> boolean eq(T left, T right) {
+            if (left == right) {
+                return true;
+            } else if (left == null) {
+                return false;
+            } else {
+                return left.equals(right);
+            }
+        }
+    }
+
+    static final class Content {
+
+        private final Set<IInstallableUnit> units;
+        private final TargetPlatformFilterEvaluator filter;
+        private final MirroringArtifactProvider remoteArtifactCache;
+
+        Content(Set<IInstallableUnit> units, TargetPlatformFilterEvaluator filter,
+                MirroringArtifactProvider remoteArtifactCache) {
+            this.units = Collections.unmodifiableSet(units);
+            this.filter = filter;
+            this.remoteArtifactCache = remoteArtifactCache;
+        }
+
+        /**
+         * Returns the units from the p2 repositories and target files, with the configured filters
+         * and the execution environment specific filters already applied.
+         */
+        Set<IInstallableUnit> getUnits() {
+            return units;
+        }
+
+        /**
+         * Returns the configured filters, or <code>null</code> if there are none.
+         */
+        TargetPlatformFilterEvaluator getFilter() {
+            return filter;
+        }
+
+        MirroringArtifactProvider getRemoteArtifactCache() {
+            return remoteArtifactCache;
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2014 Sonatype Inc. and others.
+ * Copyright (c) 2008, 2015 Sonatype Inc. and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -26,6 +26,12 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.URIUtil;
@@ -43,6 +49,7 @@ import org.eclipse.tycho.artifacts.TargetPlatform;
 import org.eclipse.tycho.artifacts.TargetPlatformFilter;
 import org.eclipse.tycho.core.ee.shared.ExecutionEnvironmentConfiguration;
 import org.eclipse.tycho.core.resolver.shared.MavenRepositoryLocation;
+import org.eclipse.tycho.core.shared.BuildFailureException;
 import org.eclipse.tycho.core.shared.MavenContext;
 import org.eclipse.tycho.core.shared.MavenLogger;
 import org.eclipse.tycho.p2.maven.repository.Activator;
@@ -69,6 +76,11 @@ import org.eclipse.tycho.repository.util.DuplicateFilteringLoggingProgressMonito
 
 public class TargetPlatformFactoryImpl implements TargetPlatformFactory {
 
+    /**
+     * Session property for the number of threads used to download target platform artifacts.
+     */
+    static final String DOWNLOAD_THREADS_PROPERTY = "tycho.p2.downloadThreads";
+
     private final MavenContext mavenContext;
     private final MavenLogger logger;
     private final IProgressMonitor monitor;
@@ -87,9 +99,12 @@ public class TargetPlatformFactoryImpl implements TargetPlatformFactory {
 
     private final TargetDefinitionResolverService targetDefinitionResolverService;
 
+    /** Content shared between projects with the same target platform configuration */
+    private final TargetPlatformContentCache contentCache;
+
     public TargetPlatformFactoryImpl(MavenContext mavenContext, IProvisioningAgent remoteAgent,
             LocalArtifactRepository localArtifactRepo, LocalMetadataRepository localMetadataRepo,
-            TargetDefinitionResolverService targetDefinitionResolverService) {
+            TargetDefinitionResolverService targetDefinitionResolverService, TargetPlatformContentCache contentCache) {
         this.mavenContext = mavenContext;
         this.logger = mavenContext.getLogger();
         this.monitor = new DuplicateFilteringLoggingProgressMonitor(logger); // entails that this class is not thread-safe
@@ -114,6 +129,7 @@ public class TargetPlatformFactoryImpl implements TargetPlatformFactory {
         this.localMetadataRepository = localMetadataRepo;
         this.localArtifactRepository = localArtifactRepo;
         this.targetDefinitionResolverService = targetDefinitionResolverService;
+        this.contentCache = contentCache;
     }
 
     @Override
@@ -152,8 +168,8 @@ public class TargetPlatformFactoryImpl implements TargetPlatformFactory {
     public P2TargetPlatform createTargetPlatform(TargetPlatformConfigurationStub tpConfiguration,
             ExecutionEnvironmentResolutionHandler eeResolutionHandler, List<ReactorProject> reactorProjects,
             PomDependencyCollector pomDependencies) {
-        List<TargetDefinitionContent> targetFileContent = resolveTargetDefinitions(tpConfiguration,
-                eeResolutionHandler.getResolutionHints());
+        ExecutionEnvironmentResolutionHints eeResolutionHints = eeResolutionHandler.getResolutionHints();
+        TargetPlatformContentCache.Content sharedContent = getSharedContent(tpConfiguration, eeResolutionHints);
 
         PomDependencyCollectorImpl pomDependenciesContent = (PomDependencyCollectorImpl) pomDependencies;
         // TODO 412416 remove when the RepositoryBlackboardKey registration is gone
@@ -168,31 +184,26 @@ public class TargetPlatformFactoryImpl implements TargetPlatformFactory {
                 pomDependencyArtifactRepo, Activator.getProvisioningAgent(), blackboardKey.toURI()));
         logger.debug("Registered artifact repository " + blackboardKey);
 
-        Set<MavenRepositoryLocation> completeRepositories = tpConfiguration.getP2Repositories();
-        registerRepositoryIDs(completeRepositories);
-
         // collect & process metadata
-        boolean includeLocalMavenRepo = shouldIncludeLocallyInstalledUnits(tpConfiguration);
-        LinkedHashSet<IInstallableUnit> externalUIs = gatherExternalInstallableUnits(completeRepositories,
-                targetFileContent, pomDependenciesContent, includeLocalMavenRepo);
-
         Map<IInstallableUnit, ReactorProjectIdentities> reactorProjectUIs = getPreliminaryReactorProjectUIs(reactorProjects);
 
-        List<TargetPlatformFilter> iuFilters = tpConfiguration.getFilters();
-        TargetPlatformFilterEvaluator filter = !iuFilters.isEmpty() ? new TargetPlatformFilterEvaluator(iuFilters,
-                logger) : null;
-
+        TargetPlatformFilterEvaluator filter = sharedContent.getFilter();
         applyConfiguredFilter(filter, reactorProjectUIs.keySet());
-        applyFilters(filter, externalUIs, reactorProjectUIs.keySet(), eeResolutionHandler.getResolutionHints());
+
+        boolean includeLocalMavenRepo = shouldIncludeLocallyInstalledUnits(tpConfiguration);
+        Collection<IInstallableUnit> externalUIs = gatherExternalInstallableUnits(sharedContent.getUnits(),
+                pomDependenciesContent, includeLocalMavenRepo, filter, reactorProjectUIs.keySet(), eeResolutionHints);
+
+        MirroringArtifactProvider remoteArtifactCache = sharedContent.getRemoteArtifactCache();
 
         PreliminaryTargetPlatformImpl targetPlatform = new PreliminaryTargetPlatformImpl(reactorProjectUIs,//
                 externalUIs, //
                 pomDependenciesContent.getMavenInstallableUnits(), //
-                eeResolutionHandler.getResolutionHints(), //
+                eeResolutionHints, //
                 filter, //
                 localMetadataRepository, //
-                createExternalArtifactProvider(completeRepositories, targetFileContent, pomDependencyArtifactRepo,
-                        tpConfiguration.getIncludePackedArtifacts()), //
+                new CompositeArtifactProvider(pomDependencyArtifactRepo, remoteArtifactCache), //
+                remoteArtifactCache, //
                 localArtifactRepository, //
                 includeLocalMavenRepo, //
                 logger);
@@ -202,6 +213,71 @@ public class TargetPlatformFactoryImpl implements TargetPlatformFactory {
         return targetPlatform;
     }
 
+    /**
+     * Returns the content of the target platform which is the same for all projects with the given
+     * configuration. The content is computed once and then shared with the other projects.
+     */
+    private TargetPlatformContentCache.Content getSharedContent(final TargetPlatformConfigurationStub tpConfiguration,
+            final ExecutionEnvironmentResolutionHints eeResolutionHints) {
+        TargetPlatformContentCache.Key key = new TargetPlatformContentCache.Key(tpConfiguration, eeResolutionHints,
+                remoteAgent);
+
+        FutureTask<TargetPlatformContentCache.Content> newComputation = new FutureTask<>(
+                new Callable<TargetPlatformContentCache.Content>() {
+                    @Override
+                    public TargetPlatformContentCache.Content call() {
+                        return computeSharedContent(tpConfiguration, eeResolutionHints);
+                    }
+                });
+        // projects built in parallel with the same configuration wait for the first one to compute the content
+        FutureTask<TargetPlatformContentCache.Content> computation = contentCache.putIfAbsent(key, newComputation);
+        if (computation == null) {
+            computation = newComputation;
+            computation.run();
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("Reusing the target platform content computed for an identical configuration");
+        }
+
+        try {
+            return computation.get();
+        } catch (ExecutionException e) {
+            contentCache.remove(key, computation);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while computing the target platform content", e);
+        }
+    }
+
+    private TargetPlatformContentCache.Content computeSharedContent(TargetPlatformConfigurationStub tpConfiguration,
+            ExecutionEnvironmentResolutionHints eeResolutionHints) {
+        List<TargetDefinitionContent> targetFileContent = resolveTargetDefinitions(tpConfiguration, eeResolutionHints);
+
+        Set<MavenRepositoryLocation> completeRepositories = tpConfiguration.getP2Repositories();
+        registerRepositoryIDs(completeRepositories);
+
+        LinkedHashSet<IInstallableUnit> units = gatherRepositoryInstallableUnits(completeRepositories,
+                targetFileContent);
+
+        List<TargetPlatformFilter> iuFilters = tpConfiguration.getFilters();
+        TargetPlatformFilterEvaluator filter = !iuFilters.isEmpty() ? new TargetPlatformFilterEvaluator(iuFilters,
+                logger) : null;
+
+        // reactor units are project specific, so units shadowed by reactor units are removed later
+        applyFilters(filter, units, Collections.<IInstallableUnit> emptySet(), eeResolutionHints);
+
+        MirroringArtifactProvider remoteArtifactCache = createRemoteArtifactCache(completeRepositories,
+                targetFileContent, tpConfiguration.getIncludePackedArtifacts());
+
+        return new TargetPlatformContentCache.Content(units, filter, remoteArtifactCache);
+    }
+
     private List<TargetDefinitionContent> resolveTargetDefinitions(TargetPlatformConfigurationStub tpConfiguration,
             ExecutionEnvironmentResolutionHints eeResolutionHints) {
         List<TargetDefinitionContent> result = new ArrayList<>();
@@ -253,44 +329,131 @@ public class TargetPlatformFactoryImpl implements TargetPlatformFactory {
     }
 
     /**
-     * External installable units collected from p2 repositories, .target files and local Maven
-     * repository.
+     * Installable units collected from p2 repositories and .target files.
      */
-    private LinkedHashSet<IInstallableUnit> gatherExternalInstallableUnits(
-            Set<MavenRepositoryLocation> completeRepositories, List<TargetDefinitionContent> targetDefinitionsContent,
-            PomDependencyCollectorImpl pomDependenciesContent, boolean includeLocalMavenRepo) {
+    private LinkedHashSet<IInstallableUnit> gatherRepositoryInstallableUnits(
+            Set<MavenRepositoryLocation> completeRepositories, List<TargetDefinitionContent> targetDefinitionsContent) {
         LinkedHashSet<IInstallableUnit> result = new LinkedHashSet<>();
 
         for (TargetDefinitionContent targetDefinitionContent : targetDefinitionsContent) {
             result.addAll(targetDefinitionContent.getUnits());
         }
 
-        List<IMetadataRepository> metadataRepositories = new ArrayList<>();
-        for (MavenRepositoryLocation location : completeRepositories) {
-            metadataRepositories.add(loadMetadataRepository(location));
+        for (IMetadataRepository repository : loadMetadataRepositories(completeRepositories)) {
+            IQueryResult<IInstallableUnit> matches = repository.query(QueryUtil.ALL_UNITS, monitor);
+            result.addAll(matches.toUnmodifiableSet());
         }
+        return result;
+    }
+
+    /**
+     * External installable units collected from p2 repositories, .target files, POM dependencies and
+     * local Maven repository. The (already filtered) units from p2 repositories and .target files
+     * are shared with other projects, so only the project specific units need to be filtered here.
+     */
+    private Collection<IInstallableUnit> gatherExternalInstallableUnits(Set<IInstallableUnit> sharedUnits,
+            PomDependencyCollectorImpl pomDependenciesContent, boolean includeLocalMavenRepo,
+            TargetPlatformFilterEvaluator filter, Set<IInstallableUnit> reactorProjectUIs,
+            ExecutionEnvironmentResolutionHints eeResolutionHints) {
+        List<IInstallableUnit> projectSpecificUnits = new ArrayList<>();
         if (includeLocalMavenRepo) {
-            metadataRepositories.add(localMetadataRepository);
+            IQueryResult<IInstallableUnit> locallyInstalledIUs = localMetadataRepository.query(QueryUtil.ALL_UNITS,
+                    monitor);
+            projectSpecificUnits.addAll(locallyInstalledIUs.toUnmodifiableSet());
+
+            if (logger.isDebugEnabled()) {
+                logger.debug("Added " + projectSpecificUnits.size() + " locally built units to the target platform");
+            }
         }
+        projectSpecificUnits.addAll(pomDependenciesContent.gatherMavenInstallableUnits());
+        applyFilters(filter, projectSpecificUnits, reactorProjectUIs, eeResolutionHints);
 
-        for (IMetadataRepository repository : metadataRepositories) {
-            IQueryResult<IInstallableUnit> matches = repository.query(QueryUtil.ALL_UNITS, monitor);
-            result.addAll(matches.toUnmodifiableSet());
+        Set<String> reactorIUIDs = getIds(reactorProjectUIs);
+        if (projectSpecificUnits.isEmpty() && !containsAnyId(sharedUnits, reactorIUIDs)) {
+            // avoid copying the (typically large) shared units
+            return sharedUnits;
         }
 
-        result.addAll(pomDependenciesContent.gatherMavenInstallableUnits());
+        LinkedHashSet<IInstallableUnit> result = new LinkedHashSet<>();
+        for (IInstallableUnit unit : sharedUnits) {
+            // installable units shadowed by reactor projects
+            if (!reactorIUIDs.contains(unit.getId())) {
+                result.add(unit);
+            }
+        }
+        result.addAll(projectSpecificUnits);
+        return result;
+    }
 
-        if (includeLocalMavenRepo && logger.isDebugEnabled()) {
-            IQueryResult<IInstallableUnit> locallyInstalledIUs = localMetadataRepository.query(QueryUtil.ALL_UNITS,
-                    null);
-            logger.debug("Added " + countElements(locallyInstalledIUs.iterator())
-                    + " locally built units to the target platform");
+    private static Set<String> getIds(Set<IInstallableUnit> units) {
+        Set<String> result = new HashSet<>();
+        for (IInstallableUnit unit : units) {
+            result.add(unit.getId());
         }
+        return result;
+    }
 
+    private static boolean containsAnyId(Collection<IInstallableUnit> units, Set<String> ids) {
+        if (ids.isEmpty()) {
+            return false;
+        }
+        for (IInstallableUnit unit : units) {
+            if (ids.contains(unit.getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Loads the p2 repositories. The repositories are loaded concurrently so that the overall time
+     * is determined by the slowest repository rather than by the sum of all repository latencies.
+     */
+    private List<IMetadataRepository> loadMetadataRepositories(Set<MavenRepositoryLocation> locations) {
+        List<IMetadataRepository> result = new ArrayList<>(locations.size());
+        if (locations.size() <= 1) {
+            for (MavenRepositoryLocation location : locations) {
+                result.add(loadMetadataRepository(location, monitor));
+            }
+            return result;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(locations.size());
+        try {
+            List<Future<IMetadataRepository>> futures = new ArrayList<>(locations.size());
+            for (final MavenRepositoryLocation location : locations) {
+                futures.add(executor.submit(new Callable<IMetadataRepository>() {
+                    @Override
+                    public IMetadataRepository call() {
+                        // progress monitor is not thread-safe
+                        return loadMetadataRepository(location, new DuplicateFilteringLoggingProgressMonitor(logger));
+                    }
+                }));
+            }
+            // keep the order of the repositories, and report errors in that order
+            for (Future<IMetadataRepository> future : futures) {
+                try {
+                    result.add(future.get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new RuntimeException(cause);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while loading p2 repositories", e);
+        } finally {
+            executor.shutdownNow();
+        }
         return result;
     }
 
-    private IMetadataRepository loadMetadataRepository(MavenRepositoryLocation location) {
+    private IMetadataRepository loadMetadataRepository(MavenRepositoryLocation location, IProgressMonitor monitor) {
         try {
             // TODO always log that a p2 repository is added to the target platform somewhere; used to be either from p2 or the following line
             // logger.info("Adding repository (cached) " + location.toASCIIString());
@@ -305,20 +468,28 @@ public class TargetPlatformFactoryImpl implements TargetPlatformFactory {
     }
 
     /**
-     * Provider for all target platform artifacts from outside the reactor.
+     * Provider for the target platform artifacts from remote repositories, mirrored to the local
+     * Maven repository on access.
      */
-    private IRawArtifactFileProvider createExternalArtifactProvider(Set<MavenRepositoryLocation> completeRepositories,
-            List<TargetDefinitionContent> targetDefinitionsContent,
-            IRawArtifactFileProvider pomDependencyArtifactRepository, boolean includePackedArtifacts) {
+    private MirroringArtifactProvider createRemoteArtifactCache(Set<MavenRepositoryLocation> completeRepositories,
+            List<TargetDefinitionContent> targetDefinitionsContent, boolean includePackedArtifacts) {
 
         RepositoryArtifactProvider remoteArtifactProvider = createRemoteArtifactProvider(completeRepositories,
                 targetDefinitionsContent);
-        MirroringArtifactProvider remoteArtifactCache = MirroringArtifactProvider.createInstance(
-                localArtifactRepository, remoteArtifactProvider, includePackedArtifacts, logger);
+        return MirroringArtifactProvider.createInstance(localArtifactRepository, remoteArtifactProvider,
+                includePackedArtifacts, getDownloadThreadCount(), logger);
+    }
 
-        IRawArtifactFileProvider jointArtifactsProvider = new CompositeArtifactProvider(
-                pomDependencyArtifactRepository, remoteArtifactCache);
-        return jointArtifactsProvider;
+    private int getDownloadThreadCount() {
+        String value = mavenContext.getSessionProperties().getProperty(DOWNLOAD_THREADS_PROPERTY);
+        if (value == null) {
+            return 1;
+        }
+        try {
+            return Math.max(1, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            throw new BuildFailureException("Invalid value for " + DOWNLOAD_THREADS_PROPERTY + ": " + value);
+        }
     }
 
     /**
@@ -382,10 +553,7 @@ public class TargetPlatformFactoryImpl implements TargetPlatformFactory {
     private void applyFilters(TargetPlatformFilterEvaluator filter, Collection<IInstallableUnit> collectionToModify,
             Set<IInstallableUnit> reactorProjectUIs, ExecutionEnvironmentResolutionHints eeResolutionHints) {
 
-        Set<String> reactorIUIDs = new HashSet<>();
-        for (IInstallableUnit unit : reactorProjectUIs) {
-            reactorIUIDs.add(unit.getId());
-        }
+        Set<String> reactorIUIDs = getIds(reactorProjectUIs);
 
         // a.jre/config.a.jre installable units
         // partial installable units
@@ -415,14 +583,6 @@ public class TargetPlatformFactoryImpl implements TargetPlatformFactory {
         return Boolean.valueOf(iu.getProperty(IInstallableUnit.PROP_PARTIAL_IU)).booleanValue();
     }
 
-    static int countElements(Iterator<?> iterator) {
-        int result = 0;
-        for (; iterator.hasNext(); iterator.next()) {
-            ++result;
-        }
-        return result;
-    }
-
     public P2TargetPlatform createTargetPlatformWithUpdatedReactorContent(TargetPlatform baseTargetPlatform,
             List<PublishingRepository> upstreamProjectResults) {
         return createTargetPlatformWithUpdatedReactorUnits(baseTargetPlatform,
@@ -462,7 +622,8 @@ public class TargetPlatformFactoryImpl implements TargetPlatformFactory {
                 preliminaryTP.getExternalArtifacts());
 
         return new FinalTargetPlatformImpl(allUnits, preliminaryTP.getEEResolutionHints(), jointArtifacts,
-                localArtifactRepository, preliminaryTP.getOriginalMavenArtifactMap(), reactorUnitsMap);
+                preliminaryTP.getRemoteArtifactCache(), localArtifactRepository,
+                preliminaryTP.getOriginalMavenArtifactMap(), reactorUnitsMap);
     }
 
     private CompositeArtifactProvider createJointArtifactProvider(List<IRawArtifactFileProvider> reactorArtifacts,
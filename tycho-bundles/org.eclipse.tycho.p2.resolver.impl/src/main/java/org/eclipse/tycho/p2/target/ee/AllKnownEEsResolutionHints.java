@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014 SAP SE and others.
+ * Copyright (c) 2014, 2015 SAP SE and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -66,6 +66,17 @@ public class AllKnownEEsResolutionHints implements ExecutionEnvironmentResolutio
         return temporaryUnits.values();
     }
 
+    @Override
+    public int hashCode() {
+        // all instances are equal
+        return AllKnownEEsResolutionHints.class.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof AllKnownEEsResolutionHints;
+    }
+
     private static List<String> getAllKnownExecutionEnvironments() {
         ClassLoader loader = BundleActivator.class.getClassLoader();
         Properties listProps = readProperties(loader.getResource("profile.list"));
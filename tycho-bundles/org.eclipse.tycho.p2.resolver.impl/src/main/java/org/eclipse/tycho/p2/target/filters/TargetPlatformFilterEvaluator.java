@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2012 SAP SE and others.
+ * Copyright (c) 2011, 2015 SAP SE and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,10 +11,14 @@
 package org.eclipse.tycho.p2.target.filters;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
 import org.eclipse.equinox.p2.metadata.IProvidedCapability;
@@ -25,6 +29,7 @@ import org.eclipse.equinox.spi.p2.publisher.PublisherHelper;
 import org.eclipse.tycho.artifacts.TargetPlatformFilter;
 import org.eclipse.tycho.artifacts.TargetPlatformFilter.CapabilityPattern;
 import org.eclipse.tycho.artifacts.TargetPlatformFilter.CapabilityType;
+import org.eclipse.tycho.artifacts.TargetPlatformFilter.FilterAction;
 import org.eclipse.tycho.artifacts.TargetPlatformFilterSyntaxException;
 import org.eclipse.tycho.core.shared.MavenLogger;
 
@@ -33,23 +38,30 @@ public class TargetPlatformFilterEvaluator {
 
     private final List<TargetPlatformFilter> filters;
     final MavenLogger logger;
-    private final FilterLogger filterLogger;
 
     public TargetPlatformFilterEvaluator(List<TargetPlatformFilter> filters, MavenLogger logger) {
         this.filters = Collections.unmodifiableList(new ArrayList<>(filters));
         this.logger = logger;
+    }
 
+    private FilterLogger newFilterLogger() {
         // TODO 372035 enable debug logging; currently the filtering is done repeatedly on subsets of the target platform, leading to excessive amount of debug output
 //        if (this.logger.isDebugEnabled())
-//            this.filterLogger = new DebugFilterLogger();
+//            return new DebugFilterLogger();
 //        else
-        this.filterLogger = new FilterLogger();
-
+        return new FilterLogger();
     }
 
     /**
      * Applies the filters to the given set. Prints out log messages.
      * 
+     * <p>
+     * All filters are evaluated in a single pass over the units. For each unit, only the filters
+     * which may match the ID of the unit or the IDs of its bundle and package capabilities are
+     * evaluated, in the order in which the filters are configured. The result is the same as if the
+     * filters were applied one after the other.
+     * </p>
+     * 
      * TODO "filter" usually returns filtered results, consider different name
      * 
      * @param targetPlatformUnits
@@ -57,61 +69,162 @@ public class TargetPlatformFilterEvaluator {
      */
     public void filterUnits(Collection<IInstallableUnit> targetPlatformUnits)
             throws TargetPlatformFilterSyntaxException {
+        if (filters.isEmpty()) {
+            return;
+        }
 
+        List<ParsedFilter> parsedFilters = new ArrayList<>(filters.size());
         for (TargetPlatformFilter filter : filters) {
-            applyFilter(filter, targetPlatformUnits);
+            parsedFilters.add(new ParsedFilter(filter, newFilterLogger()));
         }
-    }
+        FilterIndex index = new FilterIndex(parsedFilters);
 
-    // TODO change filter strategy so that a stream of units can be filtered
-    private void applyFilter(TargetPlatformFilter filter, Collection<IInstallableUnit> targetPlatformUnits) {
-        switch (filter.getAction()) {
-        case REMOVE_ALL:
-            applyRemoveAllFilter(filter, targetPlatformUnits);
-            return;
+        for (ParsedFilter filter : parsedFilters) {
+            filter.beginEvaluation();
+        }
 
-        case RESTRICT:
-            applyRestrictionFilter(filter, targetPlatformUnits);
-            return;
+        for (Iterator<IInstallableUnit> unitIterator = targetPlatformUnits.iterator(); unitIterator.hasNext();) {
+            IInstallableUnit unit = unitIterator.next();
+
+            BitSet candidates = index.getCandidateFilters(unit);
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                if (parsedFilters.get(i).removes(unit)) {
+                    unitIterator.remove();
+                    break;
+                }
+            }
+        }
+
+        for (ParsedFilter filter : parsedFilters) {
+            filter.endEvaluation();
         }
     }
 
-    private void applyRemoveAllFilter(TargetPlatformFilter filter, Collection<IInstallableUnit> targetPlatformUnits) {
-        ParsedCapabilityPattern scopePattern = parsePattern(filter.getScopePattern(), null);
+    /**
+     * A filter with parsed patterns and the logger for its evaluation.
+     */
+    private class ParsedFilter {
+
+        private final TargetPlatformFilter filter;
+        private final ParsedCapabilityPattern scopePattern;
+        private final ParsedCapabilityPattern restrictionPattern;
+        private final FilterLogger filterLogger;
+
+        ParsedFilter(TargetPlatformFilter filter, FilterLogger filterLogger) {
+            this.filter = filter;
+            this.scopePattern = parsePattern(filter.getScopePattern(), null);
+            this.restrictionPattern = filter.getAction() == FilterAction.RESTRICT ? parsePattern(
+                    filter.getActionPattern(), scopePattern) : null;
+            this.filterLogger = filterLogger;
+        }
 
-        // TODO implement debug logging
+        ParsedCapabilityPattern getScopePattern() {
+            return scopePattern;
+        }
 
-        for (Iterator<IInstallableUnit> unitIterator = targetPlatformUnits.iterator(); unitIterator.hasNext();) {
-            IInstallableUnit unit = unitIterator.next();
+        void beginEvaluation() {
+            if (restrictionPattern != null) {
+                filterLogger.beginEvaluation(filter);
+            }
+        }
+
+        /**
+         * Returns <code>true</code> if the unit shall be removed according to this filter.
+         */
+        boolean removes(IInstallableUnit unit) {
+            if (!matches(unit, scopePattern)) {
+                return false;
+            }
+            // TODO implement debug logging for the remove all action
+            if (restrictionPattern == null) {
+                return true;
+            }
 
-            if (matches(unit, scopePattern)) {
-                unitIterator.remove();
+            if (!matches(unit, restrictionPattern)) {
+                filterLogger.unitRemoved(unit);
+                return true;
+            } else {
+                filterLogger.unitKept(unit);
+                return false;
             }
         }
-    }
 
-    private void applyRestrictionFilter(TargetPlatformFilter filter, Collection<IInstallableUnit> targetPlatformUnits) {
-        ParsedCapabilityPattern scopePattern = parsePattern(filter.getScopePattern(), null);
-        ParsedCapabilityPattern restrictionPattern = parsePattern(filter.getActionPattern(), scopePattern);
+        void endEvaluation() {
+            if (restrictionPattern != null) {
+                filterLogger.endEvaluation();
+            }
+        }
+    }
 
-        filterLogger.beginEvaluation(filter);
+    /**
+     * Index of the filters by the type and ID of their scope pattern, so that only the filters
+     * which can match a unit need to be evaluated for that unit.
+     */
+    private static class FilterIndex {
 
-        for (Iterator<IInstallableUnit> unitIterator = targetPlatformUnits.iterator(); unitIterator.hasNext();) {
-            IInstallableUnit unit = unitIterator.next();
+        private final int filterCount;
+        private final Map<CapabilityType, Map<String, BitSet>> filtersById = new EnumMap<>(CapabilityType.class);
+        private final Map<CapabilityType, BitSet> filtersForAnyId = new EnumMap<>(CapabilityType.class);
 
-            if (matches(unit, scopePattern)) {
-                if (!matches(unit, restrictionPattern)) {
-                    unitIterator.remove();
+        FilterIndex(List<ParsedFilter> filters) {
+            filterCount = filters.size();
+            for (CapabilityType type : CapabilityType.values()) {
+                filtersById.put(type, new HashMap<String, BitSet>());
+                filtersForAnyId.put(type, new BitSet(filterCount));
+            }
 
-                    filterLogger.unitRemoved(unit);
+            for (int i = 0; i < filterCount; i++) {
+                ParsedCapabilityPattern scope = filters.get(i).getScopePattern();
+                String id = scope.getIdRequirement();
+                if (id == null) {
+                    filtersForAnyId.get(scope.getType()).set(i);
                 } else {
-                    filterLogger.unitKept(unit);
+                    Map<String, BitSet> typeIndex = filtersById.get(scope.getType());
+                    BitSet filtersWithId = typeIndex.get(id);
+                    if (filtersWithId == null) {
+                        filtersWithId = new BitSet(filterCount);
+                        typeIndex.put(id, filtersWithId);
+                    }
+                    filtersWithId.set(i);
                 }
             }
+        }
+
+        /**
+         * Returns the indices of the filters whose scope pattern may match the given unit.
+         */
+        BitSet getCandidateFilters(IInstallableUnit unit) {
+            BitSet result = new BitSet(filterCount);
+            addCandidates(result, CapabilityType.P2_INSTALLABLE_UNIT, unit.getId());
 
+            if (!hasFilters(CapabilityType.OSGI_BUNDLE) && !hasFilters(CapabilityType.JAVA_PACKAGE)) {
+                return result;
+            }
+            boolean bundleFound = false;
+            for (IProvidedCapability capability : unit.getProvidedCapabilities()) {
+                String namespace = capability.getNamespace();
+                if (!bundleFound && BundlesAction.CAPABILITY_NS_OSGI_BUNDLE.equals(namespace)) {
+                    // only the first bundle capability is considered, see getBundleCapability
+                    bundleFound = true;
+                    addCandidates(result, CapabilityType.OSGI_BUNDLE, capability.getName());
+                } else if (PublisherHelper.CAPABILITY_NS_JAVA_PACKAGE.equals(namespace)) {
+                    addCandidates(result, CapabilityType.JAVA_PACKAGE, capability.getName());
+                }
+            }
+            return result;
         }
 
-        filterLogger.endEvaluation();
+        private boolean hasFilters(CapabilityType type) {
+            return !filtersById.get(type).isEmpty() || !filtersForAnyId.get(type).isEmpty();
+        }
+
+        private void addCandidates(BitSet result, CapabilityType type, String id) {
+            result.or(filtersForAnyId.get(type));
+            BitSet filtersWithId = filtersById.get(type).get(id);
+            if (filtersWithId != null) {
+                result.or(filtersWithId);
+            }
+        }
     }
 
     private boolean matches(IInstallableUnit unit, ParsedCapabilityPattern pattern) {
@@ -225,6 +338,10 @@ public class TargetPlatformFilterEvaluator {
             return type;
         }
 
+        String getIdRequirement() {
+            return idRequirement;
+        }
+
         boolean matchesId(String id) {
             if (idRequirement == null)
                 return true;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2011 Sonatype Inc. and others.
+ * Copyright (c) 2008, 2015 Sonatype Inc. and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -57,9 +57,13 @@ abstract class AbstractSlicerResolutionStrategy extends AbstractResolutionStrate
             }
         }
 
-        Set<IInstallableUnit> availableIUs = new LinkedHashSet<>(data.getAvailableIUs());
-        availableIUs.addAll(data.getEEResolutionHints().getTemporaryAdditions());
-        availableIUs.addAll(data.getEEResolutionHints().getMandatoryUnits());
+        IQueryable<IInstallableUnit> availableIUs = data.getIndexedAvailableIUs();
+        if (availableIUs == null) {
+            Set<IInstallableUnit> availableIUSet = new LinkedHashSet<>(data.getAvailableIUs());
+            availableIUSet.addAll(data.getEEResolutionHints().getTemporaryAdditions());
+            availableIUSet.addAll(data.getEEResolutionHints().getMandatoryUnits());
+            availableIUs = new QueryableCollection(availableIUSet);
+        }
 
         Set<IInstallableUnit> seedIUs = new LinkedHashSet<>(data.getRootIUs());
         if (data.getAdditionalRequirements() != null && !data.getAdditionalRequirements().isEmpty()) {
@@ -72,7 +76,7 @@ abstract class AbstractSlicerResolutionStrategy extends AbstractResolutionStrate
             seedIUs.add(createUnitRequiring("tycho-ee", null, data.getEEResolutionHints().getMandatoryRequires()));
         }
 
-        Slicer slicer = newSlicer(new QueryableCollection(availableIUs), properties);
+        Slicer slicer = newSlicer(availableIUs, properties);
         IQueryable<IInstallableUnit> slice = slicer.slice(seedIUs.toArray(EMPTY_IU_ARRAY), monitor);
         MultiStatus slicerStatus = slicer.getStatus();
         if (slice == null || isSlicerError(slicerStatus)) {
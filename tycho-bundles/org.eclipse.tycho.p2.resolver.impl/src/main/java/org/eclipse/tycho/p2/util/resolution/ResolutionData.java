@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012 SAP AG and others.
+ * Copyright (c) 2012, 2015 SAP AG and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,11 +16,18 @@ import java.util.Map;
 
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
 import org.eclipse.equinox.p2.metadata.IRequirement;
+import org.eclipse.equinox.p2.query.IQueryable;
 
 public interface ResolutionData {
 
     Collection<IInstallableUnit> getAvailableIUs();
 
+    /**
+     * Returns an indexed view on the available units and the units added for the execution
+     * environment, or <code>null</code> if there is no such view which can be reused.
+     */
+    IQueryable<IInstallableUnit> getIndexedAvailableIUs();
+
     Collection<IInstallableUnit> getRootIUs();
 
     List<IRequirement> getAdditionalRequirements();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2014 SAP SE and others.
+ * Copyright (c) 2012, 2015 SAP SE and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -29,6 +29,7 @@ public class ResolutionDataImpl implements ResolutionData {
     private final ExecutionEnvironmentResolutionHints eeResolutionHints;
 
     private Collection<IInstallableUnit> availableIUs;
+    private IQueryable<IInstallableUnit> indexedAvailableIUs;
     private Collection<IInstallableUnit> rootIUs;
     private List<IRequirement> additionalRequirements;
     private Map<String, String> additionalFilterProperties;
@@ -51,6 +52,30 @@ public class ResolutionDataImpl implements ResolutionData {
      */
     public void setAvailableIUs(Collection<IInstallableUnit> availableIUs) {
         this.availableIUs = availableIUs;
+        this.indexedAvailableIUs = null;
+    }
+
+    /**
+     * Sets the installable units which may be used by the resolver, together with an indexed view
+     * on these units which can be shared between resolutions.
+     * 
+     * @param availableIUs
+     *            the units available to the resolver. Must not contain any non-applicable execution
+     *            environment units.
+     * @param indexedAvailableIUs
+     *            the same units as <code>availableIUs</code> plus the temporary additions and the
+     *            mandatory units of the execution environment
+     * @see #setAvailableIUs(Collection)
+     */
+    public void setAvailableIUs(Collection<IInstallableUnit> availableIUs,
+            IQueryable<IInstallableUnit> indexedAvailableIUs) {
+        this.availableIUs = availableIUs;
+        this.indexedAvailableIUs = indexedAvailableIUs;
+    }
+
+    @Override
+    public IQueryable<IInstallableUnit> getIndexedAvailableIUs() {
+        return indexedAvailableIUs;
     }
 
     /**
@@ -61,6 +86,7 @@ public class ResolutionDataImpl implements ResolutionData {
      */
     public void setAvailableIUsAndFilter(IQueryable<IInstallableUnit> unfilteredAvailableUnits) {
         this.availableIUs = new LinkedHashSet<>();
+        this.indexedAvailableIUs = null;
 
         IQueryResult<IInstallableUnit> allUnits = unfilteredAvailableUnits.query(QueryUtil.ALL_UNITS,
                 new NullProgressMonitor());
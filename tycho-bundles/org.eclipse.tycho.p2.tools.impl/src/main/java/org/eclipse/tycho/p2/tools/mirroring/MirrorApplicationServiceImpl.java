@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2014 SAP SE and others.
+ * Copyright (c) 2010, 2015 SAP SE and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,15 +10,19 @@
  *******************************************************************************/
 package org.eclipse.tycho.p2.tools.mirroring;
 
+import java.io.File;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.equinox.internal.p2.director.PermissiveSlicer;
 import org.eclipse.equinox.p2.core.IProvisioningAgent;
 import org.eclipse.equinox.p2.core.ProvisionException;
 import org.eclipse.equinox.p2.internal.repository.mirroring.IArtifactMirrorLog;
@@ -27,9 +31,11 @@ import org.eclipse.equinox.p2.internal.repository.tools.SlicingOptions;
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
 import org.eclipse.equinox.p2.metadata.Version;
 import org.eclipse.equinox.p2.query.IQuery;
+import org.eclipse.equinox.p2.query.IQueryable;
 import org.eclipse.equinox.p2.query.QueryUtil;
 import org.eclipse.equinox.p2.repository.artifact.IArtifactDescriptor;
 import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
+import org.eclipse.equinox.p2.repository.metadata.IMetadataRepositoryManager;
 import org.eclipse.tycho.ArtifactType;
 import org.eclipse.tycho.BuildOutputDirectory;
 import org.eclipse.tycho.core.resolver.shared.DependencySeed;
@@ -51,6 +57,8 @@ public class MirrorApplicationServiceImpl implements MirrorApplicationService {
 
     private static final String MIRROR_FAILURE_MESSAGE = "Mirroring failed";
 
+    private static final String SLICE_REPOSITORY_DIR = "mirror-slice";
+
     private MavenContext mavenContext;
 
     @Override
@@ -128,41 +136,99 @@ public class MirrorApplicationServiceImpl implements MirrorApplicationService {
             Collection<DependencySeed> projectSeeds, BuildContext context, boolean includeAllDependencies,
             boolean includePacked, Map<String, String> filterProperties) throws FacadeException {
         IProvisioningAgent agent = Activator.createProvisioningAgent(context.getTargetDirectory());
+        File sliceLocation = context.getTargetDirectory().getChild(SLICE_REPOSITORY_DIR);
         try {
-            final MirrorApplication mirrorApp = createMirrorApplication(sources, destination, agent, includePacked);
+            IMetadataRepository sourceMetadata = createMirrorApplication(sources, destination, agent, includePacked)
+                    .getCompositeMetadataRepository();
 
             // mirror scope: seed units...
-            mirrorApp.setSourceIUs(toInstallableUnitList(projectSeeds, mirrorApp.getCompositeMetadataRepository(),
-                    sources));
-
-            // TODO the p2 mirror tool should support mirroring multiple environments at once
-            for (TargetEnvironment environment : context.getEnvironments()) {
-                SlicingOptions options = new SlicingOptions();
-                options.considerStrictDependencyOnly(!includeAllDependencies);
-                Map<String, String> filter = options.getFilter();
-                addFilterForFeatureJARs(filter);
-                if (filterProperties != null) {
-                    filter.putAll(filterProperties);
-                }
-                filter.putAll(environment.toFilterProperties());
-                mirrorApp.setSlicingOptions(options);
-
-                try {
-                    LogListener logListener = new LogListener(mavenContext.getLogger());
-                    mirrorApp.setLog(logListener);
-
-                    IStatus returnStatus = mirrorApp.run(null);
-                    checkStatus(returnStatus);
-                    logListener.showHelpForLoggedMessages();
-
-                } catch (ProvisionException e) {
-                    throw new FacadeException(
-                            MIRROR_FAILURE_MESSAGE + ": " + StatusTool.collectProblems(e.getStatus()), e);
-                }
+            List<IInstallableUnit> seedUnits = toInstallableUnitList(projectSeeds, sourceMetadata, sources);
+
+            try {
+                LogListener logListener = new LogListener(mavenContext.getLogger());
+
+                // ... plus their dependencies in any of the environments
+                Set<IInstallableUnit> slice = sliceForAllEnvironments(sourceMetadata, seedUnits, context,
+                        includeAllDependencies, filterProperties, logListener);
+
+                // mirror the union of the slices in a single run, so that the source repositories are only
+                // queried and the artifacts are only compared and copied once
+                URI sliceRepository = createSliceRepository(agent, sliceLocation, slice);
+                MirrorApplication mirrorApp = createMirrorApplication(sliceRepository, sources, destination, agent,
+                        includePacked);
+                mirrorApp.setLog(logListener);
+
+                IStatus returnStatus = mirrorApp.run(null);
+                checkStatus(returnStatus);
+                logListener.showHelpForLoggedMessages();
+
+            } catch (ProvisionException e) {
+                throw new FacadeException(MIRROR_FAILURE_MESSAGE + ": " + StatusTool.collectProblems(e.getStatus()), e);
             }
         } finally {
             agent.stop();
+            deleteSliceRepository(sliceLocation);
+        }
+    }
+
+    /**
+     * Computes the units to be mirrored in the same way as the p2 mirror application, but for all
+     * target environments at once.
+     */
+    private static Set<IInstallableUnit> sliceForAllEnvironments(IMetadataRepository sourceMetadata,
+            List<IInstallableUnit> seedUnits, BuildContext context, boolean includeAllDependencies,
+            Map<String, String> filterProperties, LogListener logListener) throws ProvisionException {
+        IInstallableUnit[] roots = seedUnits.toArray(new IInstallableUnit[seedUnits.size()]);
+        Set<IInstallableUnit> result = new LinkedHashSet<>();
+
+        for (TargetEnvironment environment : context.getEnvironments()) {
+            SlicingOptions options = new SlicingOptions();
+            options.considerStrictDependencyOnly(!includeAllDependencies);
+            Map<String, String> filter = options.getFilter();
+            addFilterForFeatureJARs(filter);
+            if (filterProperties != null) {
+                filter.putAll(filterProperties);
+            }
+            filter.putAll(environment.toFilterProperties());
+
+            PermissiveSlicer slicer = new PermissiveSlicer(sourceMetadata, filter,
+                    options.includeOptionalDependencies(), options.isEverythingGreedy(), options.forceFilterTo(),
+                    options.considerStrictDependencyOnly(), options.followOnlyFilteredRequirements());
+            IQueryable<IInstallableUnit> environmentSlice = slicer.slice(roots, null);
+            if (!slicer.getStatus().isOK()) {
+                logListener.log(slicer.getStatus());
+            }
+            if (environmentSlice == null) {
+                throw new ProvisionException(slicer.getStatus());
+            }
+            result.addAll(environmentSlice.query(QueryUtil.createIUAnyQuery(), null).toUnmodifiableSet());
         }
+        return result;
+    }
+
+    /**
+     * Stores the given units in a temporary metadata repository. With this repository as only
+     * metadata source, the slicing done by the p2 mirror application yields exactly these units.
+     */
+    private static URI createSliceRepository(IProvisioningAgent agent, File location, Set<IInstallableUnit> slice)
+            throws ProvisionException {
+        deleteSliceRepository(location);
+        IMetadataRepositoryManager manager = (IMetadataRepositoryManager) agent
+                .getService(IMetadataRepositoryManager.SERVICE_NAME);
+        IMetadataRepository repository = manager.createRepository(location.toURI(), SLICE_REPOSITORY_DIR,
+                IMetadataRepositoryManager.TYPE_SIMPLE_REPOSITORY, null);
+        repository.addInstallableUnits(slice);
+        return repository.getLocation();
+    }
+
+    private static void deleteSliceRepository(File location) {
+        File[] files = location.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        location.delete();
     }
 
     private static MirrorApplication createMirrorApplication(RepositoryReferences sources,
@@ -180,6 +246,27 @@ public class MirrorApplicationServiceImpl implements MirrorApplicationService {
         return mirrorApp;
     }
 
+    private static MirrorApplication createMirrorApplication(URI metadataSource, RepositoryReferences sources,
+            DestinationRepositoryDescriptor destination, IProvisioningAgent agent, boolean includePacked) {
+        final MirrorApplication mirrorApp = new MirrorApplication(agent, includePacked);
+
+        List<RepositoryDescriptor> sourceDescriptors = new ArrayList<>();
+        createSourceRepositories(sourceDescriptors, Collections.singletonList(metadataSource),
+                RepositoryDescriptor.KIND_METADATA);
+        createSourceRepositories(sourceDescriptors, sources.getArtifactRepositories(),
+                RepositoryDescriptor.KIND_ARTIFACT);
+        for (RepositoryDescriptor sourceDescriptor : sourceDescriptors) {
+            mirrorApp.addSource(sourceDescriptor);
+        }
+        mirrorApp.addDestination(createDestinationDescriptor(destination));
+
+        // the metadata source only contains the units to be mirrored -> no need for filtering
+        SlicingOptions options = new SlicingOptions();
+        options.considerStrictDependencyOnly(true);
+        mirrorApp.setSlicingOptions(options);
+        return mirrorApp;
+    }
+
     private static RepositoryDescriptor createDestinationDescriptor(DestinationRepositoryDescriptor destination) {
         final RepositoryDescriptor destinationDescriptor = new RepositoryDescriptor();
         destinationDescriptor.setLocation(destination.getLocation().toURI());
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012 SAP SE and others.
+ * Copyright (c) 2012, 2015 SAP SE and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,4 +17,8 @@ public class DirectorCommandException extends RuntimeException {
         super(message);
     }
 
+    public DirectorCommandException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
 }
@@ -12,10 +12,12 @@ package org.eclipse.tycho.p2.tools.mirroring;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -112,6 +114,22 @@ public class MirrorApplicationServiceTest {
         assertTrue(repoFile(destinationRepo, "features/" + FEATURE_PATCH + "_1.0.0.jar").exists());
     }
 
+    @Test
+    public void testMirrorForMultipleEnvironments() throws Exception {
+        List<TargetEnvironment> environments = Arrays.asList(new TargetEnvironment("a", "b", "c"),
+                new TargetEnvironment("d", "e", "f"));
+        context = new BuildContext(new ReactorProjectIdentitiesStub(tempFolder.getRoot()), DEFAULT_QUALIFIER,
+                environments);
+
+        subject.mirrorReactor(sourceRepos("patch", "e342"), destinationRepo, seedFor(SIMPLE_FEATURE_IU), context,
+                false, false, null);
+
+        logVerifier.expectNoWarnings();
+        assertTrue(repoFile(destinationRepo, "plugins/org.eclipse.core.runtime_3.4.0.v20080512.jar").exists());
+        assertTrue(repoFile(destinationRepo, "features/" + SIMPLE_FEATURE + "_1.0.0.jar").exists());
+        assertFalse(context.getTargetDirectory().getChild("mirror-slice").exists());
+    }
+
     @Test
     public void testMirrorFeatureAndPatch() throws Exception {
         subject.mirrorReactor(sourceRepos("patch", "e352"), destinationRepo,
@@ -14,21 +14,12 @@ package org.eclipse.tycho.core.locking;
 import java.io.File;
 
 import org.codehaus.plexus.component.annotations.Component;
-import org.eclipse.osgi.internal.framework.EquinoxContainer;
-import org.eclipse.osgi.internal.location.BasicLocation;
-import org.eclipse.osgi.service.datalocation.Location;
 import org.eclipse.tycho.locking.facade.FileLockService;
 import org.eclipse.tycho.locking.facade.FileLocker;
 
 @Component(role = FileLockService.class)
 public class FileLockServiceImpl implements FileLockService {
 
-    private Location anyLocation;
-
-    public FileLockServiceImpl() {
-        anyLocation = new BasicLocation(null, null, false, null, new EquinoxContainer(null).getConfiguration());
-    }
-
     /*
      * (non-Javadoc)
      * 
@@ -36,7 +27,7 @@ public class FileLockServiceImpl implements FileLockService {
      */
     @Override
     public synchronized FileLocker getFileLocker(File file) {
-        return new FileLockerImpl(file, anyLocation);
+        return new FileLockerImpl(file);
     }
 
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011 SAP AG and others.
+ * Copyright (c) 2011, 2015 SAP AG and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,20 +13,69 @@ package org.eclipse.tycho.core.locking;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-import org.eclipse.osgi.service.datalocation.Location;
 import org.eclipse.tycho.locking.facade.FileLocker;
 import org.eclipse.tycho.locking.facade.LockTimeoutException;
 
+/**
+ * File locker based on a {@link FileLock} on a marker file. Threads of the same JVM first wait for
+ * an in-process lock for the marker file, so that only one of them waits for the file lock. The
+ * file lock is awaited with a blocking {@link FileChannel#lock(long, long, boolean)} call on a
+ * worker thread, so that the lock is obtained as soon as the other process releases it.
+ * 
+ * <p>
+ * Like the previously used Equinox location lock, the first byte of the marker file is locked, so
+ * that different Tycho versions exclude each other. As before, the lock is not re-entrant and may be
+ * released by any thread.
+ * </p>
+ * 
+ * <p>
+ * The marker file is deleted on release while the lock is still held. A locker which has waited for
+ * the lock on the deleted file therefore notices that the file at the marker file path has been
+ * replaced, and locks the new file instead.
+ * </p>
+ */
 public class FileLockerImpl implements FileLocker {
 
     private static final String LOCKFILE_SUFFIX = ".tycholock";
 
-    private final Location lockFileLocation;
+    private static final ConcurrentMap<File, Semaphore> IN_PROCESS_LOCKS = new ConcurrentHashMap<>();
+
+    private static final ExecutorService LOCK_WAITERS = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "Tycho file lock waiter");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
     final File lockMarkerFile;
+    private final Semaphore inProcessLock;
 
-    public FileLockerImpl(File file, Location anyLocation) {
+    private RandomAccessFile lockMarkerRaFile;
+    private FileLock fileLock;
+
+    public FileLockerImpl(File file) {
         try {
             if (file.isDirectory()) {
                 this.lockMarkerFile = new File(file, LOCKFILE_SUFFIX).getCanonicalFile();
@@ -41,13 +90,22 @@ public class FileLockerImpl implements FileLocker {
             if (!parentDir.isDirectory() && !parentDir.mkdirs()) {
                 throw new RuntimeException("Could not create parent directory " + parentDir + " of lock marker file");
             }
-            this.lockFileLocation = anyLocation.createLocation(null, null, false);
-            this.lockFileLocation.set(lockMarkerFile.toURL(), false, lockMarkerFile.getAbsolutePath());
-        } catch (MalformedURLException e) {
-            throw new RuntimeException(e);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        this.inProcessLock = getInProcessLock(lockMarkerFile);
+    }
+
+    private static Semaphore getInProcessLock(File lockMarkerFile) {
+        Semaphore lock = IN_PROCESS_LOCKS.get(lockMarkerFile);
+        if (lock == null) {
+            Semaphore newLock = new Semaphore(1, true);
+            lock = IN_PROCESS_LOCKS.putIfAbsent(lockMarkerFile, newLock);
+            if (lock == null) {
+                lock = newLock;
+            }
+        }
+        return lock;
     }
 
     @Override
@@ -60,33 +118,151 @@ public class FileLockerImpl implements FileLocker {
         if (timeout < 0) {
             throw new IllegalArgumentException("timeout must not be negative");
         }
+        long deadline = System.currentTimeMillis() + timeout;
+
+        try {
+            if (!inProcessLock.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                throw newTimeoutException(timeout, null);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw newTimeoutException(timeout, e);
+        }
+
         boolean success = false;
-        final long waitInterval = 50L;
-        long maxTries = (timeout / waitInterval) + 1;
-        IOException ioException = null;
-        for (long i = 0; i < maxTries; i++) {
-            ioException = null;
+        try {
+            lockFile(timeout, deadline);
+            success = true;
+        } finally {
+            if (!success) {
+                closeLockMarkerFile();
+                inProcessLock.release();
+            }
+        }
+    }
+
+    private void lockFile(long timeout, long deadline) {
+        while (true) {
+            Object lockedFileKey;
             try {
-                success = lockFileLocation.lock();
-            } catch (IOException ioe) {
-                // keep trying (and re-throw eventually)
-                ioException = ioe;
+                lockedFileKey = openLockMarkerFile();
+            } catch (IOException e) {
+                throw newTimeoutException(timeout, e);
             }
-            if (success) {
+            acquireFileLock(timeout, deadline);
+            if (isLockMarkerFile(lockedFileKey)) {
                 return;
             }
-            try {
-                Thread.sleep(waitInterval);
-            } catch (InterruptedException e) {
-                // ignore
+            // the previous owner has deleted the file while we were waiting -> lock the current file
+            closeLockMarkerFile();
+        }
+    }
+
+    /**
+     * Opens the marker file and returns its file key, or <code>null</code> if the file system
+     * doesn't provide file keys.
+     */
+    private Object openLockMarkerFile() throws IOException {
+        while (true) {
+            BasicFileAttributes attributesBeforeOpen = readAttributes(lockMarkerFile);
+            lockMarkerRaFile = new RandomAccessFile(lockMarkerFile, "rw");
+            if (attributesBeforeOpen != null) {
+                Object fileKey = attributesBeforeOpen.fileKey();
+                if (fileKey == null) {
+                    return null;
+                }
+                BasicFileAttributes attributesAfterOpen = readAttributes(lockMarkerFile);
+                if (attributesAfterOpen != null && fileKey.equals(attributesAfterOpen.fileKey())) {
+                    return fileKey;
+                }
             }
+            // the file has been created or replaced concurrently, so the opened file is not known -> open again
+            lockMarkerRaFile.close();
+            lockMarkerRaFile = null;
+        }
+    }
+
+    private boolean isLockMarkerFile(Object fileKey) {
+        if (fileKey == null) {
+            // file systems without file keys, e.g. on Windows, don't allow to delete open files
+            return true;
         }
-        String message = "lock timeout: Could not acquire lock on file " + lockFileLocation.getURL() + " for "
-                + timeout + " msec";
-        if (ioException != null) {
-            throw new LockTimeoutException(message, ioException);
+        try {
+            BasicFileAttributes attributes = readAttributes(lockMarkerFile);
+            return attributes != null && fileKey.equals(attributes.fileKey());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static BasicFileAttributes readAttributes(File file) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            return Files.readAttributes(file.toPath(), BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private void acquireFileLock(long timeout, long deadline) {
+        FileChannel channel = lockMarkerRaFile.getChannel();
+        try {
+            fileLock = channel.tryLock(0, 1, false);
+        } catch (IOException | OverlappingFileLockException e) {
+            throw newTimeoutException(timeout, e);
+        }
+        if (fileLock != null) {
+            return;
+        } else if (timeout == 0) {
+            throw newTimeoutException(timeout, null);
+        }
+
+        // locked by other process -> wait until it releases the lock
+        final FileChannel lockChannel = channel;
+        Future<FileLock> pendingLock = LOCK_WAITERS.submit(new Callable<FileLock>() {
+            @Override
+            public FileLock call() throws IOException {
+                return lockChannel.lock(0, 1, false);
+            }
+        });
+        try {
+            fileLock = pendingLock.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // interrupting the waiter closes the channel
+            if (pendingLock.cancel(true)) {
+                throw newTimeoutException(timeout, null);
+            }
+            // the waiter has completed in the meantime
+            fileLock = getAcquiredLock(pendingLock);
+            if (fileLock == null) {
+                throw newTimeoutException(timeout, null);
+            }
+        } catch (InterruptedException e) {
+            pendingLock.cancel(true);
+            Thread.currentThread().interrupt();
+            throw newTimeoutException(timeout, e);
+        } catch (ExecutionException e) {
+            throw newTimeoutException(timeout, e.getCause());
+        }
+    }
+
+    private static FileLock getAcquiredLock(Future<FileLock> completedLock) {
+        try {
+            return completedLock.get();
+        } catch (ExecutionException | InterruptedException e) {
+            return null;
+        }
+    }
+
+    private LockTimeoutException newTimeoutException(long timeout, Throwable cause) {
+        String message = "lock timeout: Could not acquire lock on file " + lockMarkerFile + " for " + timeout
+                + " msec";
+        if (cause != null) {
+            return new LockTimeoutException(message, cause);
         } else {
-            throw new LockTimeoutException(message);
+            return new LockTimeoutException(message);
         }
     }
 
@@ -97,10 +273,40 @@ public class FileLockerImpl implements FileLocker {
      */
     @Override
     public void release() {
-        lockFileLocation.release();
-        if (lockMarkerFile.isFile() && !lockMarkerFile.delete()) {
-            // this can happen if another process already holds the lock again
-            lockMarkerFile.deleteOnExit();
+        if (fileLock == null) {
+            return;
+        }
+        try {
+            // delete while holding the lock so that no other locker can lock the file in the meantime;
+            // this fails on file systems which don't allow to delete open files
+            boolean deleted = lockMarkerFile.delete();
+            closeLockMarkerFile();
+            if (!deleted && lockMarkerFile.isFile() && !lockMarkerFile.delete()) {
+                // this can happen if another process already holds the lock again
+                lockMarkerFile.deleteOnExit();
+            }
+        } finally {
+            inProcessLock.release();
+        }
+    }
+
+    private void closeLockMarkerFile() {
+        try {
+            if (fileLock != null && fileLock.isValid()) {
+                fileLock.release();
+            }
+        } catch (IOException e) {
+            // closing the file releases the lock anyway
+        } finally {
+            fileLock = null;
+            if (lockMarkerRaFile != null) {
+                try {
+                    lockMarkerRaFile.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+                lockMarkerRaFile = null;
+            }
         }
     }
 
@@ -111,8 +317,39 @@ public class FileLockerImpl implements FileLocker {
      */
     @Override
     public boolean isLocked() {
+        if (fileLock != null) {
+            return true;
+        }
+        // prevents that the test lock interferes with a concurrent lock call in this process
+        if (!inProcessLock.tryAcquire()) {
+            return true;
+        }
+        try {
+            return isLockedByOtherProcess();
+        } finally {
+            inProcessLock.release();
+        }
+    }
+
+    private boolean isLockedByOtherProcess() {
+        if (!lockMarkerFile.isFile()) {
+            return false;
+        }
         try {
-            return lockFileLocation.isLocked();
+            RandomAccessFile raFile = new RandomAccessFile(lockMarkerFile, "rw");
+            try {
+                FileLock testLock = raFile.getChannel().tryLock(0, 1, false);
+                if (testLock == null) {
+                    return true;
+                }
+                testLock.release();
+                return false;
+            } catch (OverlappingFileLockException e) {
+                // held by another locker in this process
+                return true;
+            } finally {
+                raFile.close();
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -20,7 +20,12 @@ import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.maven.AbstractMavenLifecycleParticipant;
 import org.apache.maven.MavenExecutionException;
@@ -49,6 +54,8 @@ public class TychoMavenLifecycleParticipant extends AbstractMavenLifecyclePartic
             "tycho-versions-plugin"));
     private static final String P2_USER_AGENT_KEY = "p2.userAgent";
     private static final String P2_USER_AGENT_VALUE = "tycho/";
+    static final String RESOLVER_THREADS_PROPERTY = "tycho.resolver.threads";
+    static final String MANIFEST_CACHE_SIZE_PROPERTY = "tycho.manifestCacheSize";
 
     @Requirement
     private BundleReader bundleReader;
@@ -91,9 +98,7 @@ public class TychoMavenLifecycleParticipant extends AbstractMavenLifecyclePartic
             }
 
             List<ReactorProject> reactorProjects = DefaultReactorProject.adapt(session);
-            for (MavenProject project : projects) {
-                resolver.resolveProject(session, project, reactorProjects);
-            }
+            resolveProjects(session, projects, reactorProjects);
         } catch (BuildFailureException e) {
             // build failure is not an internal (unexpected) error, so avoid printing a stack
             // trace by wrapping it in MavenExecutionException   
@@ -101,6 +106,83 @@ public class TychoMavenLifecycleParticipant extends AbstractMavenLifecyclePartic
         }
     }
 
+    private void resolveProjects(MavenSession session, List<MavenProject> projects,
+            List<ReactorProject> reactorProjects) throws MavenExecutionException {
+        int threadCount = getResolverThreadCount(session.getUserProperties(), projects.size());
+        if (threadCount <= 1) {
+            for (MavenProject project : projects) {
+                resolver.resolveProject(session, project, reactorProjects);
+            }
+            return;
+        }
+
+        log.info("Resolving dependencies of " + projects.size() + " projects with " + threadCount + " threads");
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            // the resolution of a project only reads what setupProject has computed for the other
+            // reactor projects, and not their resolution results, so the projects can be resolved in
+            // any order
+            List<Future<?>> results = new ArrayList<>(projects.size());
+            for (MavenProject project : projects) {
+                results.add(executor.submit(newResolutionTask(session, project, reactorProjects)));
+            }
+            for (Future<?> result : results) {
+                waitForResolution(result);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Runnable newResolutionTask(MavenSession session, final MavenProject project,
+            final List<ReactorProject> reactorProjects) {
+        // each worker needs its own session because the current project is switched during the resolution
+        final MavenSession workerSession = session.clone();
+        return new Runnable() {
+            @Override
+            public void run() {
+                resolver.resolveProject(workerSession, project, reactorProjects);
+            }
+        };
+    }
+
+    private static void waitForResolution(Future<?> result) throws MavenExecutionException {
+        try {
+            result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MavenExecutionException("Interrupted while resolving project dependencies", e);
+        }
+    }
+
+    /**
+     * Returns the number of threads for resolving the reactor projects, as configured with the
+     * <code>tycho.resolver.threads</code> property. By default, projects are resolved one after
+     * another.
+     */
+    static int getResolverThreadCount(Properties userProperties, int projectCount) {
+        String threadCountConfiguration = userProperties.getProperty(RESOLVER_THREADS_PROPERTY);
+        if (threadCountConfiguration == null) {
+            return 1;
+        }
+        int threadCount;
+        try {
+            threadCount = Integer.parseInt(threadCountConfiguration.trim());
+        } catch (NumberFormatException e) {
+            throw new BuildFailureException("Invalid value for " + RESOLVER_THREADS_PROPERTY + ": "
+                    + threadCountConfiguration);
+        }
+        return Math.max(1, Math.min(threadCount, projectCount));
+    }
+
     private void validate(List<MavenProject> projects) throws MavenExecutionException {
         validateConsistentTychoVersion(projects);
         validateUniqueBaseDirs(projects);
@@ -173,6 +255,16 @@ public class TychoMavenLifecycleParticipant extends AbstractMavenLifecyclePartic
         // TODO why does the bundle reader need to cache stuff in the local maven repository?
         File localRepository = new File(session.getLocalRepository().getBasedir());
         ((DefaultBundleReader) bundleReader).setLocationRepository(localRepository);
+
+        String manifestCacheSize = session.getUserProperties().getProperty(MANIFEST_CACHE_SIZE_PROPERTY);
+        if (manifestCacheSize != null) {
+            try {
+                ((DefaultBundleReader) bundleReader).setManifestCacheSize(Integer.parseInt(manifestCacheSize.trim()));
+            } catch (NumberFormatException e) {
+                throw new BuildFailureException("Invalid value for " + MANIFEST_CACHE_SIZE_PROPERTY + ": "
+                        + manifestCacheSize);
+            }
+        }
     }
 
 }
@@ -10,11 +10,13 @@
  *******************************************************************************/
 package org.eclipse.tycho.core.osgitools;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Set;
@@ -34,10 +36,14 @@ import org.eclipse.tycho.locking.facade.FileLocker;
 public class DefaultBundleReader extends AbstractLogEnabled implements BundleReader {
 
     public static final String CACHE_PATH = ".cache/tycho";
-    private final LRUCache<String, OsgiManifest> manifestCache = new LRUCache<>(50);
+    static final String MANIFEST_CACHE_PATH = CACHE_PATH + "/manifests";
+    public static final int DEFAULT_MANIFEST_CACHE_SIZE = 5000;
 
+    private LRUCache<String, CachedManifest> manifestCache = new LRUCache<>(DEFAULT_MANIFEST_CACHE_SIZE);
+
+    private File localRepository;
     private File cacheDir;
-    private Set<String> extractedFiles = new HashSet<>();
+    private Set<String> extractedFiles = Collections.synchronizedSet(new HashSet<String>());
 
     @Requirement
     private FileLockService fileLockService;
@@ -45,14 +51,34 @@ public class DefaultBundleReader extends AbstractLogEnabled implements BundleRea
     @Override
     public OsgiManifest loadManifest(File bundleLocation) {
         String locationPath = bundleLocation.getAbsolutePath();
-        OsgiManifest manifest = manifestCache.get(locationPath);
-        if (manifest == null) {
-            manifest = doLoadManifest(bundleLocation);
-            manifestCache.put(locationPath, manifest);
+        // bundles may be rebuilt (or changed in the file system) during the build
+        File manifestSource = bundleLocation.isDirectory() ? new File(bundleLocation, JarFile.MANIFEST_NAME)
+                : bundleLocation;
+        long lastModified = manifestSource.lastModified();
+        long length = manifestSource.length();
+
+        CachedManifest cached;
+        synchronized (this) {
+            cached = manifestCache.get(locationPath);
+        }
+        if (cached != null && cached.lastModified == lastModified && cached.length == length) {
+            return cached.manifest;
+        }
+
+        OsgiManifest manifest = doLoadManifest(bundleLocation);
+        synchronized (this) {
+            manifestCache.put(locationPath, new CachedManifest(manifest, lastModified, length));
         }
         return manifest;
     }
 
+    /**
+     * Sets the maximum number of manifests kept in memory. Cached manifests are discarded.
+     */
+    public synchronized void setManifestCacheSize(int size) {
+        manifestCache = new LRUCache<>(size);
+    }
+
     private OsgiManifest doLoadManifest(File bundleLocation) {
         try {
             if (bundleLocation.isDirectory()) {
@@ -74,19 +100,70 @@ public class DefaultBundleReader extends AbstractLogEnabled implements BundleRea
             // file but not a jar, assume it is MANIFEST.MF
             return loadManifestFile(bundleLocation);
         }
+        String manifestLocation = bundleLocation.getAbsolutePath() + "!/" + JarFile.MANIFEST_NAME;
+        File persistedManifest = getPersistedManifestFile(bundleLocation);
+        if (persistedManifest != null && persistedManifest.isFile()) {
+            return OsgiManifest.parse(new FileInputStream(persistedManifest), manifestLocation);
+        }
+
         // it is a jar, let's see if it has OSGi bundle manifest
+        byte[] content;
         ZipFile jar = new ZipFile(bundleLocation, ZipFile.OPEN_READ);
         try {
             ZipEntry manifestEntry = jar.getEntry(JarFile.MANIFEST_NAME);
-            if (manifestEntry != null) {
-                InputStream stream = jar.getInputStream(manifestEntry);
-                return OsgiManifest.parse(stream, bundleLocation.getAbsolutePath() + "!/" + JarFile.MANIFEST_NAME);
+            if (manifestEntry == null) {
+                throw new OsgiManifestParserException(bundleLocation.getAbsolutePath(),
+                        "Manifest file not found in JAR archive");
             }
+            content = IOUtil.toByteArray(jar.getInputStream(manifestEntry));
         } finally {
             jar.close();
         }
-        throw new OsgiManifestParserException(bundleLocation.getAbsolutePath(),
-                "Manifest file not found in JAR archive");
+        OsgiManifest manifest = OsgiManifest.parse(new ByteArrayInputStream(content), manifestLocation);
+        if (persistedManifest != null) {
+            persistManifest(content, persistedManifest);
+        }
+        return manifest;
+    }
+
+    /**
+     * Returns the location where the manifest of the given jar is persisted across builds, or
+     * <code>null</code> if the manifest shall not be persisted. Only the manifests of jars in the
+     * local Maven repository are persisted; the location includes the size and timestamp of the
+     * jar so that an overwritten jar is read again.
+     */
+    private File getPersistedManifestFile(File jar) throws IOException {
+        if (localRepository == null) {
+            return null;
+        }
+        String jarPath = jar.getCanonicalPath();
+        String localRepositoryPath = localRepository.getCanonicalPath() + File.separator;
+        if (!jarPath.startsWith(localRepositoryPath) || !jarPath.endsWith(".jar")) {
+            return null;
+        }
+        String relativePath = jarPath.substring(localRepositoryPath.length());
+        return new File(new File(localRepository, MANIFEST_CACHE_PATH), relativePath + "." + jar.length() + "-"
+                + jar.lastModified() + ".MF");
+    }
+
+    private void persistManifest(byte[] content, File persistedManifest) {
+        try {
+            File directory = persistedManifest.getParentFile();
+            directory.mkdirs();
+            File tempFile = File.createTempFile(persistedManifest.getName(), ".tmp", directory);
+            FileOutputStream out = new FileOutputStream(tempFile);
+            try {
+                out.write(content);
+            } finally {
+                out.close();
+            }
+            if (!tempFile.renameTo(persistedManifest)) {
+                // probably written by a concurrent build
+                tempFile.delete();
+            }
+        } catch (IOException e) {
+            getLogger().debug("Could not persist manifest in " + persistedManifest + ": " + e.getMessage());
+        }
     }
 
     private OsgiManifest loadManifestFromDirectory(File directory) throws IOException {
@@ -102,6 +179,7 @@ public class DefaultBundleReader extends AbstractLogEnabled implements BundleRea
     }
 
     public void setLocationRepository(File basedir) {
+        this.localRepository = basedir;
         this.cacheDir = new File(basedir, CACHE_PATH);
     }
 
@@ -184,4 +262,16 @@ public class DefaultBundleReader extends AbstractLogEnabled implements BundleRea
             outputFile.setLastModified(timestamp);
         }
     }
+
+    private static final class CachedManifest {
+        final OsgiManifest manifest;
+        final long lastModified;
+        final long length;
+
+        CachedManifest(OsgiManifest manifest, long lastModified, long length) {
+            this.manifest = manifest;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+    }
 }
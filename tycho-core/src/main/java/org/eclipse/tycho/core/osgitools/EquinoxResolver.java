@@ -19,6 +19,7 @@ import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 
@@ -43,6 +44,7 @@ import org.eclipse.tycho.core.TychoConstants;
 import org.eclipse.tycho.core.ee.ExecutionEnvironmentUtils;
 import org.eclipse.tycho.core.ee.shared.ExecutionEnvironment;
 import org.eclipse.tycho.core.resolver.shared.PlatformPropertiesUtils;
+import org.eclipse.tycho.core.shared.LRUCache;
 import org.eclipse.tycho.core.shared.TargetEnvironment;
 import org.eclipse.tycho.core.utils.TychoProjectUtils;
 import org.osgi.framework.BundleException;
@@ -62,6 +64,9 @@ public class EquinoxResolver {
     @Requirement
     private Logger logger;
 
+    // states of the target platforms used by the reactor projects
+    private final LRUCache<PlatformStateKey, State> platformStates = new LRUCache<>(4);
+
     public State newResolvedState(MavenProject project, ExecutionEnvironment ee, boolean ignoreEE,
             DependencyArtifacts artifacts) throws BundleException {
         Properties properties = getPlatformProperties(project, ee);
@@ -150,39 +155,35 @@ public class EquinoxResolver {
 
     protected State newState(DependencyArtifacts artifacts, Properties properties, boolean ignoreEE)
             throws BundleException {
-        State state = factory.createState(true);
-
-        Map<File, Dictionary<String, String>> systemBundles = new LinkedHashMap<>();
-        Map<File, Dictionary<String, String>> externalBundles = new LinkedHashMap<>();
+        List<File> platformBundles = new ArrayList<>();
         Map<File, Dictionary<String, String>> projects = new LinkedHashMap<>();
+        boolean reactorProvidesFramework = false;
 
         for (ArtifactDescriptor artifact : artifacts.getArtifacts(ArtifactType.TYPE_ECLIPSE_PLUGIN)) {
             File location = artifact.getLocation();
-            Dictionary<String, String> mf = loadManifest(location);
-            if (isFrameworkImplementation(location, mf)) {
-                systemBundles.put(location, mf);
-            } else if (artifact.getMavenProject() != null) {
-                projects.put(location, mf);
+            if (artifact.getMavenProject() != null) {
+                Dictionary<String, String> mf = loadManifest(location);
+                if (isFrameworkImplementation(location, mf)) {
+                    platformBundles.add(location);
+                    reactorProvidesFramework = true;
+                } else {
+                    projects.put(location, mf);
+                }
             } else {
-                externalBundles.put(location, mf);
+                platformBundles.add(location);
             }
         }
 
-        long id = SYSTEM_BUNDLE_ID;
-        if (systemBundles.isEmpty()) {
-            // there were no OSGi framework implementations among bundles being resolve
-            // fabricate system.bundle to export visible JRE packages
-            state.addBundle(factory.createBundleDescription(state, getSystemBundleManifest(properties), "", id++));
+        State state;
+        if (reactorProvidesFramework) {
+            // the system bundle is built in the reactor -> don't share the state with other projects
+            state = factory.createState(true);
+            addPlatformBundles(state, platformBundles, properties);
         } else {
-            // use first framework implementation found as system bundle, i.e. bundleId==0
-            // TODO test what happens when multiple framework implementations are present
-            for (Map.Entry<File, Dictionary<String, String>> entry : systemBundles.entrySet()) {
-                addBundle(state, id++, entry.getKey(), entry.getValue(), false);
-            }
-        }
-        for (Map.Entry<File, Dictionary<String, String>> entry : externalBundles.entrySet()) {
-            addBundle(state, id++, entry.getKey(), entry.getValue(), false);
+            state = copyOf(getPlatformState(platformBundles, properties));
         }
+
+        long id = state.getHighestBundleId() + 1;
         for (Map.Entry<File, Dictionary<String, String>> entry : projects.entrySet()) {
             // make sure reactor projects override anything from the target platform
             // that has the same bundle symbolic name
@@ -215,6 +216,65 @@ public class EquinoxResolver {
         return state;
     }
 
+    /**
+     * Returns the (unresolved) state with the given target platform bundles. Since the bundles of
+     * the target platform are typically the same for many reactor projects, the states are shared
+     * between calls. The returned state must not be modified.
+     */
+    private State getPlatformState(List<File> platformBundles, Properties properties) throws BundleException {
+        PlatformStateKey key = new PlatformStateKey(platformBundles,
+                properties.getProperty(Constants.FRAMEWORK_SYSTEMPACKAGES));
+        synchronized (platformStates) {
+            State state = platformStates.get(key);
+            if (state == null) {
+                state = factory.createState(false);
+                addPlatformBundles(state, platformBundles, properties);
+                platformStates.put(key, state);
+            }
+            return state;
+        }
+    }
+
+    private void addPlatformBundles(State state, List<File> platformBundles, Properties properties)
+            throws BundleException {
+        Map<File, Dictionary<String, String>> systemBundles = new LinkedHashMap<>();
+        Map<File, Dictionary<String, String>> externalBundles = new LinkedHashMap<>();
+
+        for (File location : platformBundles) {
+            Dictionary<String, String> mf = loadManifest(location);
+            if (isFrameworkImplementation(location, mf)) {
+                systemBundles.put(location, mf);
+            } else {
+                externalBundles.put(location, mf);
+            }
+        }
+
+        long id = SYSTEM_BUNDLE_ID;
+        if (systemBundles.isEmpty()) {
+            // there were no OSGi framework implementations among bundles being resolve
+            // fabricate system.bundle to export visible JRE packages
+            state.addBundle(factory.createBundleDescription(state, getSystemBundleManifest(properties), "", id++));
+        } else {
+            // use first framework implementation found as system bundle, i.e. bundleId==0
+            // TODO test what happens when multiple framework implementations are present
+            for (Map.Entry<File, Dictionary<String, String>> entry : systemBundles.entrySet()) {
+                addBundle(state, id++, entry.getKey(), entry.getValue(), false);
+            }
+        }
+        for (Map.Entry<File, Dictionary<String, String>> entry : externalBundles.entrySet()) {
+            addBundle(state, id++, entry.getKey(), entry.getValue(), false);
+        }
+    }
+
+    private static State copyOf(State platformState) {
+        // copying the bundle descriptions is much cheaper than reading and parsing the manifests again
+        State state = factory.createState(true);
+        for (BundleDescription bundle : platformState.getBundles()) {
+            state.addBundle(factory.createBundleDescription(bundle));
+        }
+        return state;
+    }
+
     private boolean isFrameworkImplementation(File location, Dictionary<String, String> mf) {
         // starting with OSGi R4.2, /META-INF/services/org.osgi.framework.launch.FrameworkFactory
         // can be used to detect framework implementation
@@ -333,4 +393,31 @@ public class EquinoxResolver {
         }
     }
 
+    private static final class PlatformStateKey {
+        private final List<File> bundles;
+        private final String systemPackages;
+
+        PlatformStateKey(List<File> bundles, String systemPackages) {
+            this.bundles = bundles;
+            this.systemPackages = systemPackages;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(bundles, systemPackages);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof PlatformStateKey)) {
+                return false;
+            }
+            PlatformStateKey other = (PlatformStateKey) obj;
+            return bundles.equals(other.bundles) && Objects.equals(systemPackages, other.systemPackages);
+        }
+    }
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2014 Sonatype Inc. and others.
+ * Copyright (c) 2008, 2015 Sonatype Inc. and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -141,6 +141,9 @@ public class OsgiBundleProject extends AbstractTychoProject implements BundlePro
     public void setupProject(MavenSession session, MavenProject project) {
         ArtifactKey key = readArtifactKey(project.getBasedir());
         project.setContextValue(CTX_ARTIFACT_KEY, key);
+
+        // the resolution of other projects, possibly in parallel, reads this, so don't create it lazily
+        getEclipsePluginProject(DefaultReactorProject.adapt(project));
     }
 
     public ArtifactKey readArtifactKey(File location) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011 SAP AG and others.
+ * Copyright (c) 2011, 2015 SAP AG and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -121,6 +121,36 @@ public class FileLockServiceTest {
         }
     }
 
+    @Test
+    public void testWaitForLockOfOtherThread() throws Exception {
+        File testFile = newTestFile();
+        final FileLocker fileLocker1 = subject.getFileLocker(testFile);
+        FileLocker fileLocker2 = subject.getFileLocker(testFile);
+        fileLocker1.lock();
+        Thread releasingThread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(200L);
+                } catch (InterruptedException e) {
+                    // release early
+                }
+                fileLocker1.release();
+            }
+        };
+        long start = System.currentTimeMillis();
+        releasingThread.start();
+
+        fileLocker2.lock(20000L);
+        try {
+            assertTrue(System.currentTimeMillis() - start >= 200L);
+            assertTrue(fileLocker2.isLocked());
+        } finally {
+            fileLocker2.release();
+        }
+        releasingThread.join();
+    }
+
     @Test
     public void testLockedByOtherProcess() throws Exception {
         File testFile = newTestFile();
@@ -137,6 +167,33 @@ public class FileLockServiceTest {
         lockProcess.cleanup();
     }
 
+    @Test
+    public void testReleaseWhileOtherProcessIsWaiting() throws Exception {
+        File testFile = newTestFile();
+        FileLocker locker = subject.getFileLocker(testFile);
+        FileLockerProcess lockerProcess = new FileLockerProcess(testFile, 2000L);
+        locker.lock();
+        try {
+            lockerProcess.startLocking();
+            // give the other process time to wait for the lock on the current marker file
+            Thread.sleep(500L);
+        } finally {
+            // deletes the marker file the other process is waiting for
+            locker.release();
+        }
+        lockerProcess.awaitLock();
+        try {
+            assertTrue(locker.isLocked());
+            locker.lock(0L);
+            locker.release();
+            fail("lock held by other process could be acquired a second time");
+        } catch (LockTimeoutException e) {
+            // expected
+        } finally {
+            lockerProcess.cleanup();
+        }
+    }
+
     @Test
     public void testTimeout() throws Exception {
         File testFile = newTestFile();
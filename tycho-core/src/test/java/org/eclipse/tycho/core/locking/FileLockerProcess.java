@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2015 SAP SE and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    SAP SE - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.tycho.core.locking;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+
+/**
+ * Lock a file with a {@link FileLockerImpl} in a spawned JVM process and hold the lock for a
+ * certain time before releasing it. In contrast to {@link LockProcess}, the spawned process uses
+ * the same locking protocol as the test.
+ */
+public class FileLockerProcess {
+
+    private static final String LOCKING_MSG = "##locking##";
+    private static final String LOCK_ACQUIRED_MSG = "##lock acquired##";
+
+    private final File file;
+    private final long waitTime;
+    private Process process;
+    private BufferedReader processOutput;
+
+    public FileLockerProcess(File file, long waitTime) {
+        this.file = file;
+        this.waitTime = waitTime;
+    }
+
+    public static void main(String[] args) throws Exception {
+        File file = new File(args[0]);
+        long wait = Long.valueOf(args[1]);
+        FileLockerImpl locker = new FileLockerImpl(file);
+        System.out.println(LOCKING_MSG);
+        locker.lock(20000L);
+        System.out.println(LOCK_ACQUIRED_MSG);
+        Thread.sleep(wait);
+        locker.release();
+    }
+
+    /**
+     * Starts the process and returns as soon as it is about to acquire the lock.
+     */
+    public void startLocking() throws IOException {
+        File javaExecutable = new File(System.getProperty("java.home"), "bin/java"
+                + (File.separatorChar == '\\' ? ".exe" : ""));
+        String[] commandLine = new String[] { javaExecutable.getAbsolutePath(), "-cp",
+                System.getProperty("java.class.path"), FileLockerProcess.class.getName(), file.getAbsolutePath(),
+                String.valueOf(waitTime) };
+        ProcessBuilder processBuilder = new ProcessBuilder(Arrays.asList(commandLine));
+        processBuilder.redirectErrorStream(true);
+        process = processBuilder.start();
+        processOutput = new BufferedReader(new InputStreamReader(process.getInputStream()));
+        awaitMessage(LOCKING_MSG);
+    }
+
+    /**
+     * Waits until the process has acquired the lock.
+     */
+    public void awaitLock() throws IOException {
+        awaitMessage(LOCK_ACQUIRED_MSG);
+    }
+
+    private void awaitMessage(String message) throws IOException {
+        String line;
+        while (!message.equals(line = processOutput.readLine())) {
+            if (line == null) {
+                throw new IllegalStateException("Process terminated before printing " + message);
+            }
+        }
+    }
+
+    public void cleanup() throws IOException, InterruptedException {
+        if (process == null) {
+            throw new IllegalStateException("process not started");
+        }
+        InputStream stream = process.getInputStream();
+        while (stream.read() != -1) {
+            // consume stream
+        }
+        process.waitFor();
+        process = null;
+    }
+
+}
@@ -10,13 +10,17 @@
  *******************************************************************************/
 package org.eclipse.tycho.core.maven;
 
+import static org.junit.Assert.assertEquals;
+
 import java.util.Arrays;
+import java.util.Properties;
 
 import org.apache.maven.MavenExecutionException;
 import org.apache.maven.model.Build;
 import org.apache.maven.model.Plugin;
 import org.apache.maven.plugin.testing.SilentLog;
 import org.apache.maven.project.MavenProject;
+import org.eclipse.tycho.core.shared.BuildFailureException;
 import org.junit.Test;
 
 public class TychoMavenLifecycleParticipantTest {
@@ -62,6 +66,29 @@ public class TychoMavenLifecycleParticipantTest {
         tycho.validateConsistentTychoVersion(Arrays.asList(project1, project2));
     }
 
+    @Test
+    public void resolverThreadCountDefaultsToSerialResolution() {
+        assertEquals(1, TychoMavenLifecycleParticipant.getResolverThreadCount(new Properties(), 10));
+    }
+
+    @Test
+    public void resolverThreadCountIsLimitedByNumberOfProjects() {
+        assertEquals(4, TychoMavenLifecycleParticipant.getResolverThreadCount(resolverThreads("8"), 4));
+        assertEquals(3, TychoMavenLifecycleParticipant.getResolverThreadCount(resolverThreads("3"), 4));
+        assertEquals(1, TychoMavenLifecycleParticipant.getResolverThreadCount(resolverThreads("0"), 4));
+    }
+
+    @Test(expected = BuildFailureException.class)
+    public void resolverThreadCountWithInvalidValue() {
+        TychoMavenLifecycleParticipant.getResolverThreadCount(resolverThreads("many"), 4);
+    }
+
+    private static Properties resolverThreads(String value) {
+        Properties properties = new Properties();
+        properties.setProperty(TychoMavenLifecycleParticipant.RESOLVER_THREADS_PROPERTY, value);
+        return properties;
+    }
+
     private MavenProject createProject() {
         MavenProject project = new MavenProject();
         project.setBuild(new Build());
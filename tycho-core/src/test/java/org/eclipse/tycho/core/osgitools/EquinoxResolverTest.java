@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.tycho.core.osgitools;
 
+import static org.eclipse.tycho.core.osgitools.EquinoxResolver.SYSTEM_BUNDLE_ID;
+
 import java.io.File;
 import java.util.List;
 import java.util.Properties;
@@ -54,6 +56,18 @@ public class EquinoxResolverTest extends AbstractTychoMojoTestCase {
         assertEquals(1, bundles.length);
     }
 
+    public void test_platformStateIsCopied() throws BundleException {
+        Properties properties = subject.getPlatformProperties(new Properties(), null, DUMMY_EE);
+        State state1 = subject.newState(new DefaultDependencyArtifacts(), properties, false);
+        State state2 = subject.newState(new DefaultDependencyArtifacts(), properties, false);
+        assertNotSame(state1, state2);
+
+        state1.removeBundle(SYSTEM_BUNDLE_ID);
+
+        assertEquals(0, state1.getBundles("system.bundle").length);
+        assertEquals(1, state2.getBundles("system.bundle").length);
+    }
+
     public void test_bundleRuntimeExecutionEnvironment() throws Exception {
         File basedir = getBasedir("projects/bree");
 
@@ -11,6 +11,7 @@
 package org.eclipse.tycho.core.test;
 
 import java.io.File;
+import java.io.IOException;
 
 import org.codehaus.plexus.util.FileUtils;
 import org.eclipse.tycho.core.osgitools.BundleReader;
@@ -148,6 +149,35 @@ public class DefaultBundleReaderTest extends AbstractTychoMojoTestCase {
         }
     }
 
+    public void testLoadManifestAfterModification() throws Exception {
+        File bundleDir = new File(cacheDir, "modifiedBundle");
+        File manifestFile = new File(bundleDir, "META-INF/MANIFEST.MF");
+        writeManifest(manifestFile, "1.0.0");
+        assertEquals("1.0.0", bundleReader.loadManifest(bundleDir).getBundleVersion());
+
+        writeManifest(manifestFile, "2.0.0");
+        manifestFile.setLastModified(manifestFile.lastModified() + 10000);
+        assertEquals("2.0.0", bundleReader.loadManifest(bundleDir).getBundleVersion());
+    }
+
+    public void testManifestOfLocalRepositoryJarIsPersisted() throws Exception {
+        File jar = new File(cacheDir, "org/example/test/1.0.0/test-1.0.0.jar");
+        FileUtils.copyFile(new File("src/test/resources/bundlereader/jarshape/test.jar"), jar);
+
+        OsgiManifest manifest = bundleReader.loadManifest(jar);
+        assertEquals("org.eclipse.tycho.test", manifest.getBundleSymbolicName());
+
+        File persistedManifest = new File(cacheDir, ".cache/tycho/manifests/org/example/test/1.0.0/test-1.0.0.jar."
+                + jar.length() + "-" + jar.lastModified() + ".MF");
+        assertTrue(persistedManifest.isFile());
+    }
+
+    private static void writeManifest(File manifestFile, String version) throws IOException {
+        manifestFile.getParentFile().mkdirs();
+        FileUtils.fileWrite(manifestFile.getAbsolutePath(), "Manifest-Version: 1.0\nBundle-ManifestVersion: 2\n"
+                + "Bundle-SymbolicName: modified.bundle\nBundle-Version: " + version + "\n");
+    }
+
     private File getTestJar() {
         return new File(getBasedir(), "src/test/resources/bundlereader/testNestedDirClasspath_1.0.0.201007261122.jar");
     }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012 SAP AG and others.
+ * Copyright (c) 2012, 2015 SAP AG and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,10 @@
  *******************************************************************************/
 package org.eclipse.tycho.test.product;
 
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
 import org.apache.maven.it.Verifier;
 import org.eclipse.tycho.test.AbstractTychoIntegrationTest;
 import org.junit.Test;
@@ -31,4 +35,18 @@ public class MetaRequirementsTest extends AbstractTychoIntegrationTest {
         verifier.verifyErrorFreeLog();
         verifier.verifyTextInLog("The custom touchpoint action has been executed");
     }
+
+    @Test
+    public void testParallelProductInstallationWithStandaloneDirector() throws Exception {
+        // both products of the project are installed by concurrently running standalone directors
+        Verifier verifier = getVerifier("product.metaRequirements", false);
+        verifier.getCliOptions().add("-Dtycho.p2.director.parallelism=2");
+        verifier.executeGoal("verify");
+        verifier.verifyErrorFreeLog();
+
+        File productsDir = new File(verifier.getBasedir(), "product/target/products");
+        assertTrue(new File(productsDir, "pmr.product/macosx/cocoa/x86_64").isDirectory());
+        assertTrue(new File(productsDir, "additional-dependency-workaround.product/macosx/cocoa/x86_64")
+                .isDirectory());
+    }
 }
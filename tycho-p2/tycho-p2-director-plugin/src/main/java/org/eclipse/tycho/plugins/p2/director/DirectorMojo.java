@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2014 SAP SE and others.
+ * Copyright (c) 2010, 2015 SAP SE and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,7 +11,13 @@
 package org.eclipse.tycho.plugins.p2.director;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -104,7 +110,23 @@ public final class DirectorMojo extends AbstractProductMojo {
     @Parameter(defaultValue = "internal")
     private DirectorRuntimeType directorRuntime;
 
-    // TODO extract methods
+    /**
+     * <p>
+     * Maximum number of product installations which are created in parallel. Each combination of
+     * product and target environment is installed by a separate director call with its own
+     * destination and profile. By default, the installations are created one after another.
+     * </p>
+     * <p>
+     * Only supported with the <code>standalone</code> director runtime, where each installation is
+     * created by a separate director process with its own configuration and p2 data area. With the
+     * <code>internal</code> runtime, the installations are always created one after another.
+     * </p>
+     * 
+     * @since 0.24.0
+     */
+    @Parameter(property = "tycho.p2.director.parallelism", defaultValue = "1")
+    private int parallelism;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
         List<Product> products = getProductConfig().getProducts();
@@ -113,38 +135,96 @@ public final class DirectorMojo extends AbstractProductMojo {
         }
         DirectorRuntime director = getDirectorRuntime();
         RepositoryReferences sources = getSourceRepositories();
+        List<ProductInstallation> installations = new ArrayList<>();
         for (Product product : products) {
             for (TargetEnvironment env : getEnvironments()) {
-                DirectorRuntime.Command command = director.newInstallCommand();
-
                 File destination = getProductMaterializeDirectory(product, env);
                 String rootFolder = product.getRootFolder(env.getOs());
                 if (rootFolder != null && rootFolder.length() > 0) {
                     destination = new File(destination, rootFolder);
                 }
+                installations.add(new ProductInstallation(product, env, destination, newInstallCommand(director,
+                        sources, product, env, destination)));
+            }
+        }
+
+        executeInstallations(installations, getEffectiveParallelism());
+    }
+
+    private int getEffectiveParallelism() {
+        if (parallelism > 1 && directorRuntime != DirectorRuntimeType.standalone) {
+            // the director application is not known to be safe for concurrent use within one OSGi framework
+            getLog().warn(
+                    "Parameter 'parallelism' is only supported with directorRuntime 'standalone'."
+                            + " Installing the products one after another.");
+            return 1;
+        }
+        return parallelism;
+    }
+
+    private DirectorRuntime.Command newInstallCommand(DirectorRuntime director, RepositoryReferences sources,
+            Product product, TargetEnvironment env, File destination) {
+        DirectorRuntime.Command command = director.newInstallCommand();
+        command.addMetadataSources(sources.getMetadataRepositories());
+        command.addArtifactSources(sources.getArtifactRepositories());
+        command.addUnitToInstall(product.getId());
+        for (DependencySeed seed : product.getAdditionalInstallationSeeds()) {
+            command.addUnitToInstall(seed);
+        }
+        command.setDestination(destination);
+        command.setProfileName(ProfileName.getNameForEnvironment(env, profileNames, profile));
+        command.setEnvironment(env);
+        command.setInstallFeatures(installFeatures);
+        return command;
+    }
 
-                command.addMetadataSources(sources.getMetadataRepositories());
-                command.addArtifactSources(sources.getArtifactRepositories());
-                command.addUnitToInstall(product.getId());
-                for (DependencySeed seed : product.getAdditionalInstallationSeeds()) {
-                    command.addUnitToInstall(seed);
+    /**
+     * Executes the installations, at most <code>parallelism</code> at the same time. If
+     * installations fail, the failure of the first of these installations in the list is reported.
+     */
+    static void executeInstallations(List<? extends Callable<Void>> installations, int parallelism)
+            throws MojoFailureException {
+        if (parallelism <= 1 || installations.size() <= 1) {
+            for (Callable<Void> installation : installations) {
+                try {
+                    installation.call();
+                } catch (Exception e) {
+                    rethrow(e);
                 }
-                command.setDestination(destination);
-                command.setProfileName(ProfileName.getNameForEnvironment(env, profileNames, profile));
-                command.setEnvironment(env);
-                command.setInstallFeatures(installFeatures);
-                getLog().info(
-                        "Installing product " + product.getId() + " for environment " + env + " to "
-                                + destination.getAbsolutePath());
+            }
+            return;
+        }
 
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, installations.size()));
+        try {
+            List<Future<Void>> futures = new ArrayList<>(installations.size());
+            for (Callable<Void> installation : installations) {
+                futures.add(executor.submit(installation));
+            }
+            for (Future<Void> future : futures) {
                 try {
-                    command.execute();
-                } catch (DirectorCommandException e) {
-                    throw new MojoFailureException("Installation of product " + product.getId() + " for environment "
-                            + env + " failed", e);
+                    future.get();
+                } catch (ExecutionException e) {
+                    rethrow(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
                 }
             }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void rethrow(Throwable failure) throws MojoFailureException {
+        if (failure instanceof MojoFailureException) {
+            throw (MojoFailureException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
         }
+        throw new RuntimeException(failure);
     }
 
     private DirectorRuntime getDirectorRuntime() throws MojoFailureException, MojoExecutionException {
@@ -191,4 +271,33 @@ public final class DirectorMojo extends AbstractProductMojo {
         int flags = RepositoryReferenceTool.REPOSITORIES_INCLUDE_CURRENT_MODULE;
         return repositoryReferenceTool.getVisibleRepositories(getProject(), getSession(), flags);
     }
+
+    private class ProductInstallation implements Callable<Void> {
+        private final Product product;
+        private final TargetEnvironment env;
+        private final File destination;
+        private final DirectorRuntime.Command command;
+
+        ProductInstallation(Product product, TargetEnvironment env, File destination, DirectorRuntime.Command command) {
+            this.product = product;
+            this.env = env;
+            this.destination = destination;
+            this.command = command;
+        }
+
+        @Override
+        public Void call() throws MojoFailureException {
+            getLog().info(
+                    "Installing product " + product.getId() + " for environment " + env + " to "
+                            + destination.getAbsolutePath());
+
+            try {
+                command.execute();
+            } catch (DirectorCommandException e) {
+                throw new MojoFailureException("Installation of product " + product.getId() + " for environment "
+                        + env + " failed", e);
+            }
+            return null;
+        }
+    }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012 SAP SE and others.
+ * Copyright (c) 2012, 2015 SAP SE and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,10 +11,13 @@
 package org.eclipse.tycho.plugins.p2.director.runtime;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.codehaus.plexus.logging.Logger;
+import org.codehaus.plexus.util.FileUtils;
 import org.eclipse.sisu.equinox.launching.EquinoxLauncher;
 import org.eclipse.sisu.equinox.launching.internal.EquinoxInstallationLaunchConfiguration;
 import org.eclipse.tycho.launching.LaunchConfiguration;
@@ -26,6 +29,10 @@ import org.eclipse.tycho.p2.tools.director.shared.DirectorRuntime;
  * Eclipse installation with the p2 director application. This director runtime is itself a valid p2
  * installation and can therefore be used to install products with meta-requirements, e.g. for
  * custom touchpoint actions.
+ * <p>
+ * Each director call is launched with its own copy of the configuration area and its own p2 data
+ * area, so that several calls can run at the same time.
+ * </p>
  */
 public class StandaloneDirectorRuntime implements DirectorRuntime {
 
@@ -49,13 +56,20 @@ public class StandaloneDirectorRuntime implements DirectorRuntime {
             @Override
             public void execute() throws DirectorCommandException {
 
+                File runDirectory = createRunDirectory();
+                List<String> vmArguments = new ArrayList<>();
+                vmArguments.add("-Declipse.p2.data.area=" + new File(runDirectory, "p2").getAbsolutePath());
+
                 List<String> programArguments = new ArrayList<>();
+                programArguments.add("-configuration");
+                programArguments.add(EquinoxInstallationLaunchConfiguration.findConfigurationArea(runDirectory)
+                        .getAbsolutePath());
                 programArguments.add("-application");
                 programArguments.add("org.eclipse.equinox.p2.director");
                 programArguments.addAll(getDirectorApplicationArguments());
 
                 LaunchConfiguration launch = new EquinoxInstallationLaunchConfiguration(runtimeLocation,
-                        programArguments);
+                        vmArguments, programArguments);
 
                 logger.info("Using the standalone p2 Director to install the product...");
                 int exitCode = launchHelper.execute(launch, forkedProcessTimeoutInSeconds);
@@ -66,4 +80,23 @@ public class StandaloneDirectorRuntime implements DirectorRuntime {
             }
         };
     }
+
+    /**
+     * Creates a new directory with a copy of the runtime's pristine configuration area. The runtime's
+     * own configuration area is never used directly because the framework writes to it.
+     */
+    private File createRunDirectory() throws DirectorCommandException {
+        File runsDirectory = new File(runtimeLocation.getParentFile(), runtimeLocation.getName() + "-runs");
+        try {
+            runsDirectory.mkdirs();
+            File runDirectory = Files.createTempDirectory(runsDirectory.toPath(), "run").toFile();
+            FileUtils.copyDirectoryStructure(
+                    EquinoxInstallationLaunchConfiguration.findConfigurationArea(runtimeLocation),
+                    EquinoxInstallationLaunchConfiguration.findConfigurationArea(runDirectory));
+            return runDirectory;
+        } catch (IOException e) {
+            throw new DirectorCommandException("Failed to create the working directory for the p2 director in "
+                    + runsDirectory, e);
+        }
+    }
 }
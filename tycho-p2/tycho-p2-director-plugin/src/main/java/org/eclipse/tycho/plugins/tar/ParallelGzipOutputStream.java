@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2015 SAP SE and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    SAP SE - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.tycho.plugins.tar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip output stream which compresses the data in blocks on several threads (like pigz). Each
+ * block is compressed with the last 32 KB of the preceding block as dictionary and is terminated
+ * with a sync flush, so that the compressed blocks form a single deflate stream which can be read
+ * by any gzip implementation.
+ */
+class ParallelGzipOutputStream extends OutputStream {
+
+    static final int BLOCK_SIZE = 128 * 1024;
+
+    // maximum back reference distance of the deflate format
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private static final byte[] GZIP_HEADER = new byte[] { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0,
+            0 };
+
+    private final OutputStream out;
+    private final ExecutorService executor;
+    private final int maxPendingBlocks;
+    private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+
+    private final CRC32 crc = new CRC32();
+    private long uncompressedSize = 0;
+
+    private byte[] buffer = new byte[BLOCK_SIZE];
+    private int bufferPosition = 0;
+    private byte[] dictionary = null;
+
+    private boolean closed = false;
+
+    public ParallelGzipOutputStream(OutputStream out, int threads) throws IOException {
+        this.out = out;
+        int effectiveThreads = Math.max(1, threads);
+        this.executor = Executors.newFixedThreadPool(effectiveThreads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "tar.gz compressor");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        // limits the memory consumption if the output is slower than the compression
+        this.maxPendingBlocks = 2 * effectiveThreads;
+        out.write(GZIP_HEADER);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        buffer[bufferPosition++] = (byte) b;
+        if (bufferPosition == BLOCK_SIZE) {
+            submitBlock(false);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            int chunk = Math.min(len, BLOCK_SIZE - bufferPosition);
+            System.arraycopy(b, off, buffer, bufferPosition, chunk);
+            bufferPosition += chunk;
+            off += chunk;
+            len -= chunk;
+            if (bufferPosition == BLOCK_SIZE) {
+                submitBlock(false);
+            }
+        }
+    }
+
+    private void submitBlock(final boolean last) throws IOException {
+        final byte[] block = buffer;
+        final int length = bufferPosition;
+        final byte[] blockDictionary = dictionary;
+
+        crc.update(block, 0, length);
+        uncompressedSize += length;
+        if (!last) {
+            // all but the last block are full
+            dictionary = Arrays.copyOfRange(block, length - DICTIONARY_SIZE, length);
+        }
+
+        pendingBlocks.addLast(executor.submit(new Callable<byte[]>() {
+            @Override
+            public byte[] call() {
+                return compress(block, length, blockDictionary, last);
+            }
+        }));
+        buffer = new byte[BLOCK_SIZE];
+        bufferPosition = 0;
+
+        while (pendingBlocks.size() > maxPendingBlocks
+                || (!pendingBlocks.isEmpty() && pendingBlocks.peekFirst().isDone())) {
+            writeBlock(pendingBlocks.removeFirst());
+        }
+    }
+
+    static byte[] compress(byte[] block, int length, byte[] dictionary, boolean last) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(block, 0, length);
+
+            ByteArrayOutputStream result = new ByteArrayOutputStream(length / 2 + 64);
+            byte[] chunk = new byte[DICTIONARY_SIZE];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    int compressed = deflater.deflate(chunk);
+                    result.write(chunk, 0, compressed);
+                }
+            } else {
+                int compressed;
+                do {
+                    compressed = deflater.deflate(chunk, 0, chunk.length, Deflater.SYNC_FLUSH);
+                    result.write(chunk, 0, compressed);
+                } while (compressed == chunk.length);
+            }
+            return result.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeBlock(Future<byte[]> compressedBlock) throws IOException {
+        try {
+            out.write(compressedBlock.get());
+        } catch (ExecutionException e) {
+            throw new IOException("Compression failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        while (!pendingBlocks.isEmpty()) {
+            writeBlock(pendingBlocks.removeFirst());
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            submitBlock(true);
+            while (!pendingBlocks.isEmpty()) {
+                writeBlock(pendingBlocks.removeFirst());
+            }
+            writeTrailer();
+        } finally {
+            executor.shutdownNow();
+            out.close();
+        }
+    }
+
+    private void writeTrailer() throws IOException {
+        byte[] trailer = new byte[8];
+        writeIntLittleEndian(trailer, 0, crc.getValue());
+        // ISIZE is the uncompressed size modulo 2^32
+        writeIntLittleEndian(trailer, 4, uncompressedSize);
+        out.write(trailer);
+    }
+
+    private static void writeIntLittleEndian(byte[] target, int offset, long value) {
+        target[offset] = (byte) value;
+        target[offset + 1] = (byte) (value >> 8);
+        target[offset + 2] = (byte) (value >> 16);
+        target[offset + 3] = (byte) (value >> 24);
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014 SAP SE and others.
+ * Copyright (c) 2014, 2015 SAP SE and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,17 +16,19 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
-import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.PosixFileAttributes;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
-import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 import org.apache.commons.compress.utils.IOUtils;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugin.logging.SystemStreamLog;
@@ -41,7 +43,8 @@ import org.apache.maven.plugin.logging.SystemStreamLog;
  * </ul>
  * 
  * in the archive as found in the filesystem for files to be archived. It uses GNU tar format
- * extensions for archive entries with path length > 100.
+ * extensions for archive entries with path length > 100. The archive is compressed on all
+ * available processors.
  *
  */
 public class TarGzArchiver {
@@ -71,15 +74,13 @@ public class TarGzArchiver {
         TarArchiveOutputStream tarStream = null;
         try {
             destFile.getAbsoluteFile().getParentFile().mkdirs();
-            GzipCompressorOutputStream gzipStream = new GzipCompressorOutputStream(
-                    new BufferedOutputStream(new FileOutputStream(destFile)));
+            ParallelGzipOutputStream gzipStream = new ParallelGzipOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(destFile)), Runtime.getRuntime().availableProcessors());
             tarStream = new TarArchiveOutputStream(gzipStream, "UTF-8");
             // allow "long" file paths (> 100 chars)
             tarStream.setLongFileMode(TarArchiveOutputStream.LONGFILE_GNU);
             for (File sourceDir : sourceDirs) {
-                for (File child : sourceDir.listFiles()) {
-                    addToTarRecursively(sourceDir, child, tarStream);
-                }
+                new TarFileVisitor(sourceDir, tarStream).addChildren(sourceDir.toPath());
             }
         } finally {
             if (tarStream != null) {
@@ -96,36 +97,100 @@ public class TarGzArchiver {
         }
     }
 
-    private void addToTarRecursively(File tarRootDir, File source, TarArchiveOutputStream tarStream)
-            throws IOException {
-        TarArchiveEntry tarEntry = createTarEntry(tarRootDir, source);
-        tarStream.putArchiveEntry(tarEntry);
-        if (source.isFile() && !tarEntry.isSymbolicLink()) {
-            copyFileContentToTarStream(source, tarStream);
+    /**
+     * Adds the visited files to the tar. The basic attributes read while walking the file tree are
+     * used for the archive entries, so that only the POSIX permissions need to be read separately.
+     */
+    private class TarFileVisitor extends SimpleFileVisitor<Path> {
+        private final File tarRootDir;
+        private final TarArchiveOutputStream tarStream;
+
+        TarFileVisitor(File tarRootDir, TarArchiveOutputStream tarStream) {
+            this.tarRootDir = tarRootDir;
+            this.tarStream = tarStream;
         }
-        tarStream.closeArchiveEntry();
-        if (source.isDirectory()) {
-            File[] children = source.listFiles();
-            if (children != null) {
-                for (File child : children) {
-                    addToTarRecursively(tarRootDir, child, tarStream);
+
+        void addChildren(Path directory) throws IOException {
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+                for (Path child : children) {
+                    Files.walkFileTree(child, this);
                 }
             }
         }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+            addToTar(dir, attrs);
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+            addToTar(file, attrs);
+            if (attrs.isSymbolicLink() && Files.isDirectory(file)) {
+                // the content of linked directories is added as well
+                addChildren(file);
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+            throw exc;
+        }
+
+        private void addToTar(Path source, BasicFileAttributes attrs) throws IOException {
+            TarArchiveEntry tarEntry;
+            boolean hasContent;
+            if (attrs.isSymbolicLink()) {
+                tarEntry = createTarEntry(tarRootDir, source.toFile());
+                hasContent = !tarEntry.isSymbolicLink() && Files.isRegularFile(source);
+            } else {
+                tarEntry = createTarEntry(tarRootDir, source, attrs, readPosixAttributes(source));
+                hasContent = attrs.isRegularFile();
+            }
+            tarStream.putArchiveEntry(tarEntry);
+            if (hasContent) {
+                copyFileContentToTarStream(source.toFile(), tarStream);
+            }
+            tarStream.closeArchiveEntry();
+        }
     }
 
+    private TarArchiveEntry createTarEntry(File tarRootDir, Path source, BasicFileAttributes attrs,
+            PosixFileAttributes posixAttrs) {
+        String pathInTar = slashify(tarRootDir.toPath().relativize(source));
+        log.debug("Adding entry " + pathInTar);
+        TarArchiveEntry tarEntry;
+        if (attrs.isDirectory()) {
+            tarEntry = new TarArchiveEntry(pathInTar + "/");
+        } else {
+            tarEntry = new TarArchiveEntry(pathInTar);
+            tarEntry.setSize(attrs.size());
+        }
+        if (posixAttrs != null) {
+            tarEntry.setMode(FilePermissionHelper.toOctalFileMode(posixAttrs.permissions()));
+        }
+        tarEntry.setModTime(attrs.lastModifiedTime().toMillis());
+        return tarEntry;
+    }
+
+    /**
+     * Creates the entry for a symbolic link, which is either preserved (if the link target is
+     * inside the archive) or replaced by the link target.
+     */
     private TarArchiveEntry createTarEntry(File tarRootDir, File source) throws IOException {
         String pathInTar = slashify(tarRootDir.toPath().relativize(source.toPath()));
         log.debug("Adding entry " + pathInTar);
         TarArchiveEntry tarEntry;
-        if (isSymbolicLink(source) && resolvesBelow(source, tarRootDir)) {
+        if (resolvesBelow(source, tarRootDir)) {
             // only create symlink entry if link target is inside archive
             tarEntry = new TarArchiveEntry(pathInTar, TarArchiveEntry.LF_SYMLINK);
             tarEntry.setLinkName(slashify(getRelativeSymLinkTarget(source, source.getParentFile())));
         } else {
             tarEntry = new TarArchiveEntry(source, pathInTar);
         }
-        PosixFileAttributes attrs = getAttributes(source);
+        PosixFileAttributes attrs = readPosixAttributes(source.toPath());
         if (attrs != null) {
             tarEntry.setMode(FilePermissionHelper.toOctalFileMode(attrs.permissions()));
         }
@@ -142,19 +207,18 @@ public class TarGzArchiver {
         }
     }
 
-    private PosixFileAttributes getAttributes(File source) {
-        PosixFileAttributeView fileAttributeView = Files.getFileAttributeView(source.toPath(),
-                PosixFileAttributeView.class, LinkOption.NOFOLLOW_LINKS);
-        if (fileAttributeView == null) {
-            return null;
-        }
-        PosixFileAttributes attrs;
+    /**
+     * Reads the POSIX attributes of the file (or link) itself, or returns <code>null</code> if
+     * the file system doesn't support POSIX attributes.
+     */
+    private static PosixFileAttributes readPosixAttributes(Path source) {
         try {
-            attrs = fileAttributeView.readAttributes();
+            return Files.readAttributes(source, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (UnsupportedOperationException e) {
+            return null;
         } catch (IOException e) {
             return null;
         }
-        return attrs;
     }
 
     private static void copyFileContentToTarStream(File source, TarArchiveOutputStream tarStream) throws IOException {
@@ -182,8 +246,4 @@ public class TarGzArchiver {
         return normalizedSymLinkPath;
     }
 
-    private static boolean isSymbolicLink(File file) {
-        return Files.isSymbolicLink(file.toPath());
-    }
-
 }
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2015 SAP SE and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    SAP SE - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.tycho.plugins.p2.director;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.Test;
+
+public class DirectorMojoTest {
+
+    @Test
+    public void testInstallationsAreExecutedInParallel() throws Exception {
+        // each installation only completes if the other one is running at the same time
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        List<InstallationStub> installations = Arrays.asList(new InstallationStub(bothStarted), new InstallationStub(
+                bothStarted));
+
+        DirectorMojo.executeInstallations(installations, 2);
+
+        for (InstallationStub installation : installations) {
+            assertTrue(installation.sawConcurrentInstallation);
+        }
+    }
+
+    @Test
+    public void testInstallationsAreExecutedSequentiallyByDefault() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        Callable<Void> installation = new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                maxRunning.set(Math.max(maxRunning.get(), running.incrementAndGet()));
+                Thread.sleep(10);
+                running.decrementAndGet();
+                return null;
+            }
+        };
+
+        DirectorMojo.executeInstallations(Arrays.asList(installation, installation, installation), 1);
+
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    public void testFailureOfFirstInstallationIsReported() throws Exception {
+        MojoFailureException firstFailure = new MojoFailureException("first");
+        MojoFailureException secondFailure = new MojoFailureException("second");
+
+        try {
+            DirectorMojo.executeInstallations(Arrays.asList(new FailingInstallation(firstFailure, 50),
+                    new FailingInstallation(secondFailure, 0)), 2);
+            fail("Exception expected");
+        } catch (MojoFailureException e) {
+            assertSame(firstFailure, e);
+        }
+    }
+
+    private static class InstallationStub implements Callable<Void> {
+        private final CountDownLatch bothStarted;
+        boolean sawConcurrentInstallation;
+
+        InstallationStub(CountDownLatch bothStarted) {
+            this.bothStarted = bothStarted;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            bothStarted.countDown();
+            sawConcurrentInstallation = bothStarted.await(10, TimeUnit.SECONDS);
+            return null;
+        }
+    }
+
+    private static class FailingInstallation implements Callable<Void> {
+        private final MojoFailureException failure;
+        private final long delayMillis;
+
+        FailingInstallation(MojoFailureException failure, long delayMillis) {
+            this.failure = failure;
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            Thread.sleep(delayMillis);
+            throw failure;
+        }
+    }
+}
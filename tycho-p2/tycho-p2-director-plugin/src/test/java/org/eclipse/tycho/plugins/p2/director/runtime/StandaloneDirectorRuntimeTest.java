@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2015 SAP SE and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    SAP SE - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.tycho.plugins.p2.director.runtime;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.codehaus.plexus.logging.Logger;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.codehaus.plexus.util.FileUtils;
+import org.eclipse.sisu.equinox.launching.EquinoxLauncher;
+import org.eclipse.sisu.equinox.launching.EquinoxLaunchingException;
+import org.eclipse.tycho.launching.LaunchConfiguration;
+import org.eclipse.tycho.p2.tools.director.shared.DirectorRuntime;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class StandaloneDirectorRuntimeTest {
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File runtimeLocation;
+    private List<LaunchConfiguration> launches = new ArrayList<>();
+    private StandaloneDirectorRuntime subject;
+
+    @Before
+    public void initSubject() throws Exception {
+        runtimeLocation = tempFolder.newFolder("director");
+        new File(runtimeLocation, "plugins").mkdirs();
+        new File(runtimeLocation, "plugins/org.eclipse.equinox.launcher_1.0.0.jar").createNewFile();
+        new File(runtimeLocation, "configuration").mkdirs();
+        FileUtils.fileWrite(new File(runtimeLocation, "configuration/config.ini").getPath(), "pristine");
+
+        EquinoxLauncher launcher = new EquinoxLauncher() {
+            @Override
+            public int execute(LaunchConfiguration configuration, int forkedProcessTimeoutInSeconds)
+                    throws EquinoxLaunchingException {
+                launches.add(configuration);
+                return 0;
+            }
+        };
+        subject = new StandaloneDirectorRuntime(runtimeLocation, launcher, 0, new ConsoleLogger(
+                Logger.LEVEL_DISABLED, "no-op logger"));
+    }
+
+    @Test
+    public void testEachCallUsesOwnConfigurationAndDataArea() throws Exception {
+        newInstallCommand().execute();
+        newInstallCommand().execute();
+
+        assertEquals(2, launches.size());
+        File configuration1 = getConfigurationArea(launches.get(0));
+        File configuration2 = getConfigurationArea(launches.get(1));
+        assertThat(configuration1, not(is(configuration2)));
+        assertThat(getDataArea(launches.get(0)), not(is(getDataArea(launches.get(1)))));
+
+        File runtimeConfiguration = new File(runtimeLocation, "configuration");
+        for (File configuration : Arrays.asList(configuration1, configuration2)) {
+            assertThat(configuration, not(is(runtimeConfiguration)));
+            assertEquals("pristine", FileUtils.fileRead(new File(configuration, "config.ini")));
+        }
+    }
+
+    @Test
+    public void testRuntimeConfigurationIsNotUsed() throws Exception {
+        newInstallCommand().execute();
+
+        File configuration = getConfigurationArea(launches.get(0));
+        FileUtils.fileWrite(new File(configuration, "config.ini").getPath(), "modified");
+
+        assertEquals("pristine", FileUtils.fileRead(new File(runtimeLocation, "configuration/config.ini")));
+    }
+
+    private DirectorRuntime.Command newInstallCommand() throws Exception {
+        DirectorRuntime.Command command = subject.newInstallCommand();
+        command.setDestination(tempFolder.newFolder());
+        command.setProfileName("profile");
+        return command;
+    }
+
+    private static File getConfigurationArea(LaunchConfiguration launch) {
+        List<String> programArguments = Arrays.asList(launch.getProgramArguments());
+        int index = programArguments.indexOf("-configuration");
+        assertTrue(index >= 0);
+        return new File(programArguments.get(index + 1));
+    }
+
+    private static File getDataArea(LaunchConfiguration launch) {
+        String prefix = "-Declipse.p2.data.area=";
+        for (String vmArgument : launch.getVMArguments()) {
+            if (vmArgument.startsWith(prefix)) {
+                return new File(vmArgument.substring(prefix.length()));
+            }
+        }
+        throw new AssertionError("No p2 data area argument in " + Arrays.asList(launch.getVMArguments()));
+    }
+}
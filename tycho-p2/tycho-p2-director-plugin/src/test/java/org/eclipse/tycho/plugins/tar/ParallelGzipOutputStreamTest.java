@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2015 SAP SE and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    SAP SE - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.tycho.plugins.tar;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.compress.utils.IOUtils;
+import org.junit.Test;
+
+public class ParallelGzipOutputStreamTest {
+
+    @Test
+    public void testEmptyStream() throws Exception {
+        byte[] compressed = compress(new byte[0], 2);
+
+        assertEquals(0, uncompress(compressed).length);
+    }
+
+    @Test
+    public void testMultipleBlocks() throws Exception {
+        byte[] data = createTestData(5 * ParallelGzipOutputStream.BLOCK_SIZE + 17);
+
+        byte[] compressed = compress(data, 4);
+
+        assertArrayEquals(data, uncompress(compressed));
+    }
+
+    @Test
+    public void testBackReferencesAcrossBlocksAreUsed() throws Exception {
+        byte[] data = new byte[4 * ParallelGzipOutputStream.BLOCK_SIZE];
+        byte[] pattern = createTestData(ParallelGzipOutputStream.BLOCK_SIZE);
+        for (int offset = 0; offset < data.length; offset += pattern.length) {
+            System.arraycopy(pattern, 0, data, offset, pattern.length);
+        }
+
+        byte[] compressed = compress(data, 4);
+
+        assertArrayEquals(data, uncompress(compressed));
+    }
+
+    @Test
+    public void testSingleByteWrites() throws Exception {
+        byte[] data = createTestData(ParallelGzipOutputStream.BLOCK_SIZE + 1);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        OutputStream subject = new ParallelGzipOutputStream(compressed, 2);
+        for (byte b : data) {
+            subject.write(b);
+        }
+        subject.close();
+
+        assertArrayEquals(data, uncompress(compressed.toByteArray()));
+    }
+
+    private static byte[] createTestData(int length) {
+        Random random = new Random(length);
+        byte[] result = new byte[length];
+        for (int i = 0; i < length; i++) {
+            // partly compressible data
+            result[i] = (byte) (random.nextInt(4) == 0 ? random.nextInt(256) : 'a' + i % 13);
+        }
+        return result;
+    }
+
+    private static byte[] compress(byte[] data, int threads) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        OutputStream subject = new ParallelGzipOutputStream(result, threads);
+        // write in chunks which are not aligned with the blocks
+        for (int offset = 0; offset < data.length; offset += 10000) {
+            subject.write(data, offset, Math.min(10000, data.length - offset));
+        }
+        subject.close();
+        return result.toByteArray();
+    }
+
+    private static byte[] uncompress(byte[] compressed) throws IOException {
+        InputStream stream = new GZIPInputStream(new ByteArrayInputStream(compressed));
+        try {
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            IOUtils.copy(stream, result);
+            return result.toByteArray();
+        } finally {
+            stream.close();
+        }
+    }
+}
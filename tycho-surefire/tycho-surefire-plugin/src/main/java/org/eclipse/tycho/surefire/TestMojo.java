@@ -25,6 +25,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.resolver.ArtifactResolutionException;
@@ -318,6 +325,28 @@ public class TestMojo extends AbstractMojo {
     @Parameter(property = "surefire.timeout")
     private int forkedProcessTimeoutInSeconds;
 
+    /**
+     * Number of test runtimes to be forked in parallel. The test classes of the test bundle are
+     * distributed among the forks, which all use the same provisioned installation. Supports a
+     * trailing "C" to multiply the value with the number of CPU cores, e.g. <code>1.5C</code>.
+     * Values smaller than 2 run all tests in a single runtime. Forking is disabled if
+     * {@link #debugPort} is set.
+     * 
+     * @since 0.24.0
+     */
+    @Parameter(property = "forkCount", defaultValue = "1")
+    private String forkCount;
+
+    /**
+     * If set to "false", each test class is run in its own test runtime (with at most
+     * {@link #forkCount} runtimes in parallel). Otherwise, the test classes are distributed evenly
+     * among {@link #forkCount} runtimes. Only applies if {@link #forkCount} is greater than 1.
+     * 
+     * @since 0.24.0
+     */
+    @Parameter(property = "reuseForks", defaultValue = "true")
+    private boolean reuseForks;
+
     /**
      * Identifies a single test (suite) class to run. This is useful if you have a single JUnit test
      * suite class defining which tests should be executed. Will be ignored if {@link #test} is
@@ -605,6 +634,10 @@ public class TestMojo extends AbstractMojo {
     @Parameter(defaultValue = "SYSTEM")
     private JDKUsage useJDK;
 
+    // set when the test runtime is created
+    private TestFrameworkProvider testProvider;
+    private ScanResult testClasses;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
         if (shouldSkip()) {
@@ -827,6 +860,13 @@ public class TestMojo extends AbstractMojo {
     }
 
     private void createSurefireProperties(TestFrameworkProvider provider) throws MojoExecutionException {
+        testProvider = provider;
+        testClasses = scanForTests();
+        getLog().debug("Using test framework provider " + provider.getClass().getName());
+        storeProperties(getSurefireProperties(provider, testClasses), surefireProperties);
+    }
+
+    private Properties getSurefireProperties(TestFrameworkProvider provider, ScanResult scanResult) {
         Properties p = new Properties();
         p.put("testpluginname", getTestBundleSymbolicName());
         p.put("testclassesdirectory", testClassesDirectory.getAbsolutePath());
@@ -836,14 +876,12 @@ public class TestMojo extends AbstractMojo {
         p.put("failifnotests", String.valueOf(failIfNoTests));
         p.put("runOrder", runOrder);
         Properties mergedProviderProperties = getMergedProviderProperties();
-        ScanResult scanResult = scanForTests();
         scanResult.writeTo(mergedProviderProperties);
         for (Map.Entry<?, ?> entry : mergedProviderProperties.entrySet()) {
             p.put("__provider." + entry.getKey(), entry.getValue());
         }
         p.setProperty("testprovider", provider.getSurefireProviderClassName());
-        getLog().debug("Using test framework provider " + provider.getClass().getName());
-        storeProperties(p, surefireProperties);
+        return p;
     }
 
     private Properties getMergedProviderProperties() {
@@ -907,15 +945,21 @@ public class TestMojo extends AbstractMojo {
     }
 
     private void runTest(EquinoxInstallation testRuntime) throws MojoExecutionException, MojoFailureException {
+        int effectiveForkCount = getEffectiveForkCount();
         int result;
         try {
             if (deleteOsgiDataDirectory) {
                 FileUtils.deleteDirectory(osgiDataDirectory);
             }
-            LaunchConfiguration cli = createCommandLine(testRuntime);
-            getLog().info(
-                    "Expected eclipse log file: " + new File(osgiDataDirectory, ".metadata/.log").getAbsolutePath());
-            result = launcher.execute(cli, forkedProcessTimeoutInSeconds);
+            if (effectiveForkCount > 1 && testClasses.size() > 1) {
+                result = runTestsInForks(testRuntime, effectiveForkCount);
+            } else {
+                LaunchConfiguration cli = createCommandLine(testRuntime);
+                getLog().info(
+                        "Expected eclipse log file: "
+                                + new File(osgiDataDirectory, ".metadata/.log").getAbsolutePath());
+                result = launcher.execute(cli, forkedProcessTimeoutInSeconds);
+            }
         } catch (Exception e) {
             throw new MojoExecutionException("Error while executing platform", e);
         }
@@ -960,6 +1004,154 @@ public class TestMojo extends AbstractMojo {
         }
     }
 
+    int getEffectiveForkCount() throws MojoExecutionException {
+        if (forkCount == null) {
+            return 1;
+        }
+        int result;
+        try {
+            if (forkCount.endsWith("C")) {
+                float perCore = Float.parseFloat(forkCount.substring(0, forkCount.length() - 1));
+                result = (int) (perCore * Runtime.getRuntime().availableProcessors());
+            } else {
+                result = Integer.parseInt(forkCount);
+            }
+        } catch (NumberFormatException e) {
+            throw new MojoExecutionException("Invalid value for parameter 'forkCount': " + forkCount, e);
+        }
+        if (result > 1 && debugPort > 0) {
+            getLog().warn("Parameter 'forkCount' is ignored because 'debugPort' is set");
+            return 1;
+        }
+        return result;
+    }
+
+    /**
+     * Distributes the test classes among the forks: if forks are reused, the test classes are
+     * distributed evenly among <code>forkCount</code> forks; otherwise each test class gets its own
+     * fork.
+     */
+    static List<List<String>> distributeTestClasses(ScanResult testClasses, int forkCount, boolean reuseForks) {
+        int batchCount = reuseForks ? Math.min(forkCount, testClasses.size()) : testClasses.size();
+        List<List<String>> result = new ArrayList<>(batchCount);
+        for (int i = 0; i < batchCount; i++) {
+            result.add(new ArrayList<String>());
+        }
+        for (int i = 0; i < testClasses.size(); i++) {
+            result.get(i % batchCount).add(testClasses.getClassName(i));
+        }
+        return result;
+    }
+
+    /**
+     * Runs the tests in several test runtimes in parallel. Each of the (at most)
+     * <code>forkCount</code> concurrently running runtimes gets its own configuration and data
+     * area, but they all share the bundles of the given installation.
+     */
+    private int runTestsInForks(final EquinoxInstallation testRuntime, int forkCount) throws Exception {
+        List<List<String>> batches = distributeTestClasses(testClasses, forkCount, reuseForks);
+        int slotCount = Math.min(forkCount, batches.size());
+        getLog().info(
+                "Running " + testClasses.size() + " test classes in " + batches.size() + " test runtimes, "
+                        + slotCount + " in parallel");
+
+        final BlockingQueue<Integer> freeSlots = new ArrayBlockingQueue<>(slotCount);
+        for (int slot = 1; slot <= slotCount; slot++) {
+            prepareForkConfigurationArea(testRuntime, slot);
+            freeSlots.add(slot);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(slotCount);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>(batches.size());
+            for (final List<String> batch : batches) {
+                futures.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        Integer slot = freeSlots.take();
+                        try {
+                            return runTestsInFork(testRuntime, slot, batch);
+                        } finally {
+                            freeSlots.add(slot);
+                        }
+                    }
+                }));
+            }
+            List<Integer> results = new ArrayList<>(futures.size());
+            for (Future<Integer> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception) {
+                        throw (Exception) e.getCause();
+                    }
+                    throw e;
+                }
+            }
+            return mergeForkResults(results);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void prepareForkConfigurationArea(EquinoxInstallation testRuntime, int slot) throws IOException {
+        File forkConfigurationArea = getForkConfigurationArea(testRuntime, slot);
+        FileUtils.deleteDirectory(forkConfigurationArea);
+        FileUtils.copyDirectoryStructure(testRuntime.getConfigurationLocation(), forkConfigurationArea);
+    }
+
+    private int runTestsInFork(EquinoxInstallation testRuntime, int slot, List<String> testClassNames)
+            throws Exception {
+        File forkDataDirectory = new File(osgiDataDirectory.getParentFile(), osgiDataDirectory.getName() + "-fork"
+                + slot);
+        File forkTestProperties = new File(surefireProperties.getParentFile(), "surefire-fork" + slot + ".properties");
+        if (deleteOsgiDataDirectory) {
+            FileUtils.deleteDirectory(forkDataDirectory);
+        }
+        storeProperties(getSurefireProperties(testProvider, new DefaultScanResult(testClassNames)),
+                forkTestProperties);
+
+        LaunchConfiguration cli = createCommandLine(testRuntime, forkDataDirectory,
+                getForkConfigurationArea(testRuntime, slot), forkTestProperties);
+        getLog().info(
+                "Running " + testClassNames.size() + " test classes in fork " + slot + ", expected eclipse log file: "
+                        + new File(forkDataDirectory, ".metadata/.log").getAbsolutePath());
+        return launcher.execute(cli, forkedProcessTimeoutInSeconds);
+    }
+
+    private static File getForkConfigurationArea(EquinoxInstallation testRuntime, int slot) {
+        File configurationLocation = testRuntime.getConfigurationLocation();
+        return new File(configurationLocation.getParentFile(), configurationLocation.getName() + "-fork" + slot);
+    }
+
+    /**
+     * Combines the return codes of several test runtimes into one return code: unexpected return
+     * codes take precedence over test failures, "no tests" is only returned if no fork found tests.
+     */
+    static int mergeForkResults(List<Integer> results) {
+        boolean testsFound = false;
+        boolean testFailures = false;
+        for (int result : results) {
+            switch (result) {
+            case 0:
+                testsFound = true;
+                break;
+            case 254/* RunResult.NO_TESTS */:
+                break;
+            case 255/* RunResult.FAILURE */:
+                testsFound = true;
+                testFailures = true;
+                break;
+            default:
+                return result;
+            }
+        }
+        if (testFailures) {
+            return 255;
+        }
+        return testsFound ? 0 : 254;
+    }
+
     protected Toolchain getToolchain() throws MojoExecutionException {
         if (JDKUsage.SYSTEM.equals(useJDK)) {
             if (toolchainManager != null) {
@@ -978,6 +1170,12 @@ public class TestMojo extends AbstractMojo {
 
     LaunchConfiguration createCommandLine(EquinoxInstallation testRuntime) throws MalformedURLException,
             MojoExecutionException {
+        return createCommandLine(testRuntime, osgiDataDirectory, testRuntime.getConfigurationLocation(),
+                surefireProperties);
+    }
+
+    private LaunchConfiguration createCommandLine(EquinoxInstallation testRuntime, File dataDirectory,
+            File configurationArea, File testProperties) throws MalformedURLException, MojoExecutionException {
         EquinoxLaunchConfiguration cli = new EquinoxLaunchConfiguration(testRuntime);
 
         String executable = null;
@@ -1011,11 +1209,11 @@ public class TestMojo extends AbstractMojo {
             cli.addProgramArguments("-debug", "-consolelog");
         }
 
-        addProgramArgs(cli, "-data", osgiDataDirectory.getAbsolutePath(), //
+        addProgramArgs(cli, "-data", dataDirectory.getAbsolutePath(), //
                 "-install", testRuntime.getLocation().getAbsolutePath(), //
-                "-configuration", testRuntime.getConfigurationLocation().getAbsolutePath(), //
+                "-configuration", configurationArea.getAbsolutePath(), //
                 "-application", getTestApplication(testRuntime.getInstallationDescription()), //
-                "-testproperties", surefireProperties.getAbsolutePath());
+                "-testproperties", testProperties.getAbsolutePath());
         if (application != null) {
             cli.addProgramArguments("-testApplication", application);
         }
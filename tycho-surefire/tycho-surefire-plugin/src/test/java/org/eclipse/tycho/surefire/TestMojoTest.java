@@ -15,11 +15,13 @@ import static org.junit.Assert.assertThat;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import junit.framework.TestCase;
 
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.surefire.util.DefaultScanResult;
 import org.apache.maven.surefire.util.ScanResult;
 import org.codehaus.plexus.util.ReflectionUtils;
 import org.eclipse.sisu.equinox.launching.DefaultEquinoxInstallationDescription;
@@ -121,6 +123,51 @@ public class TestMojoTest extends TestCase {
         assertEquals(1, result.size());
     }
 
+    public void testForkCount() throws Exception {
+        TestMojo testMojo = new TestMojo();
+        setParameter(testMojo, "forkCount", "3");
+        assertEquals(3, testMojo.getEffectiveForkCount());
+        setParameter(testMojo, "forkCount", "1C");
+        assertEquals(Runtime.getRuntime().availableProcessors(), testMojo.getEffectiveForkCount());
+    }
+
+    public void testForkCountIgnoredWithDebugPort() throws Exception {
+        TestMojo testMojo = new TestMojo();
+        setParameter(testMojo, "forkCount", "3");
+        setParameter(testMojo, "debugPort", 8000);
+        assertEquals(1, testMojo.getEffectiveForkCount());
+    }
+
+    public void testInvalidForkCount() throws Exception {
+        TestMojo testMojo = new TestMojo();
+        setParameter(testMojo, "forkCount", "many");
+        try {
+            testMojo.getEffectiveForkCount();
+            fail();
+        } catch (MojoExecutionException e) {
+            assertThat(e.getMessage(), containsString("forkCount"));
+        }
+    }
+
+    public void testDistributeTestClassesWithReusedForks() {
+        ScanResult testClasses = new DefaultScanResult(Arrays.asList("A", "B", "C", "D", "E"));
+        List<List<String>> result = TestMojo.distributeTestClasses(testClasses, 2, true);
+        assertEquals(Arrays.asList(Arrays.asList("A", "C", "E"), Arrays.asList("B", "D")), result);
+    }
+
+    public void testDistributeTestClassesWithoutReusedForks() {
+        ScanResult testClasses = new DefaultScanResult(Arrays.asList("A", "B", "C"));
+        List<List<String>> result = TestMojo.distributeTestClasses(testClasses, 2, false);
+        assertEquals(3, result.size());
+    }
+
+    public void testMergeForkResults() {
+        assertEquals(0, TestMojo.mergeForkResults(Arrays.asList(0, 254)));
+        assertEquals(255, TestMojo.mergeForkResults(Arrays.asList(0, 255, 0)));
+        assertEquals(254, TestMojo.mergeForkResults(Arrays.asList(254, 254)));
+        assertEquals(13, TestMojo.mergeForkResults(Arrays.asList(255, 13)));
+    }
+
     public ScanResult executeScanForTests(List<String> includes, List<String> excludes) throws Exception {
         TestMojo testMojo = new TestMojo();
         setParameter(testMojo, "includes", includes);